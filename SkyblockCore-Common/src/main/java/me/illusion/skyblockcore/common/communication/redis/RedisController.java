@@ -1,8 +1,10 @@
 package me.illusion.skyblockcore.common.communication.redis;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import me.illusion.skyblockcore.common.database.executor.DatabaseExecutor;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 
@@ -13,10 +15,20 @@ public class RedisController {
 
     private final JedisPool pool;
     private final String password;
+    private final DatabaseExecutor executor;
 
-    public RedisController(JedisPool pool, String password) {
+    public RedisController(JedisPool pool, String password, DatabaseExecutor executor) {
         this.pool = pool;
         this.password = password;
+        this.executor = executor;
+    }
+
+    public RedisController(JedisPool pool, String password) {
+        this(pool, password, DatabaseExecutor.platform("redis", 8, 0)); // Jedis pools default to 8 connections
+    }
+
+    public RedisController(String host, int port, String password, boolean ssl, DatabaseExecutor executor) {
+        this(new JedisPool(host, port, ssl), password, executor);
     }
 
     public RedisController(String host, int port, String password, boolean ssl) {
@@ -30,7 +42,7 @@ public class RedisController {
      * @return A completable future that will be completed when the consumer is done
      */
     public CompletableFuture<Void> borrow(Consumer<Jedis> consumer) {
-        return CompletableFuture.runAsync(() -> {
+        return executor.run(() -> {
             try (Jedis jedis = pool.getResource()) {
                 jedis.auth(password);
 
@@ -51,7 +63,7 @@ public class RedisController {
      * @return A completable future that will be completed when the function is done, and will contain the return value of the function
      */
     public <T> CompletableFuture<T> supply(Function<Jedis, T> function) {
-        return CompletableFuture.supplyAsync(() -> {
+        return executor.supply(() -> {
             try (Jedis jedis = pool.getResource()) {
                 jedis.auth(password);
 
@@ -79,6 +91,25 @@ public class RedisController {
         return jedis;
     }
 
+    /**
+     * Gets the executor which runs the borrow and supply calls
+     *
+     * @return The executor
+     */
+    public DatabaseExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Shuts the executor down, then closes the pool, along with every idle connection
+     *
+     * @param timeoutMillis How long to wait for the running calls to finish
+     */
+    public void close(long timeoutMillis) {
+        executor.shutdown(timeoutMillis, TimeUnit.MILLISECONDS);
+        pool.close();
+    }
+
     /**
      * Check if the redis connection is valid
      *
@@ -1,6 +1,8 @@
 package me.illusion.skyblockcore.common.config;
 
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Represents a read-only configuration section. This is similar to bukkit's system, but it is not tied to bukkit, and can be adapted to other systems, like
@@ -28,6 +30,17 @@ public class ReadOnlyConfigurationSection {
         return contains(path);
     }
 
+    public Set<String> getKeys() { // Only the direct children, deeper keys are flattened with dots
+        Set<String> keys = new LinkedHashSet<>();
+
+        for (String key : internalMap.keySet()) {
+            int separator = key.indexOf('.');
+            keys.add(separator == -1 ? key : key.substring(0, separator));
+        }
+
+        return keys;
+    }
+
     public ReadOnlyConfigurationSection getSection(String path) {
         return get(path, ReadOnlyConfigurationSection.class);
     }
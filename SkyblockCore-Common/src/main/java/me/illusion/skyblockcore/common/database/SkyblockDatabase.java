@@ -30,5 +30,13 @@ public interface SkyblockDatabase {
      */
     CompletableFuture<Void> flush();
 
+    /**
+     * Closes the database, releasing its connections and threads. This is called once the database is flushed, when the server is shutting down, and the
+     * database must not be used afterwards. Work that is still running is only waited for until the deadline, so closing never holds the shutdown up past it.
+     *
+     * @param deadline When to stop waiting, in epoch milliseconds
+     * @return A future which completes when the database is closed
+     */
+    CompletableFuture<Void> close(long deadline);
 
 }
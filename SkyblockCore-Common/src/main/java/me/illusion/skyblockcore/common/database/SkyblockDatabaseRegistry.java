@@ -5,12 +5,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import me.illusion.skyblockcore.common.config.ReadOnlyConfigurationSection;
 import me.illusion.skyblockcore.common.database.cache.SkyblockCacheDatabase;
 import me.illusion.skyblockcore.common.database.cache.redis.RedisSkyblockCache;
 import me.illusion.skyblockcore.common.database.fetching.SkyblockFetchingDatabase;
 import me.illusion.skyblockcore.common.database.fetching.mongo.MongoSkyblockDatabase;
+import me.illusion.skyblockcore.common.database.fetching.sharded.ShardedSkyblockDatabase;
 import me.illusion.skyblockcore.common.database.fetching.sql.impl.MariaDBSkyblockDatabase;
 import me.illusion.skyblockcore.common.database.fetching.sql.impl.MySQLSkyblockDatabase;
 import me.illusion.skyblockcore.common.database.fetching.sql.impl.PostgresSkyblockDatabase;
@@ -23,7 +26,8 @@ import me.illusion.skyblockcore.common.platform.SkyblockPlatform;
 public class SkyblockDatabaseRegistry {
 
     private final Map<String, SkyblockDatabase> databases = new ConcurrentHashMap<>();
-    private final Map<Class<? extends SkyblockDatabase>, String> chosenDatabases = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<? extends SkyblockDatabase>> factories = new ConcurrentHashMap<>();
+    private final Map<Class<? extends SkyblockDatabase>, SkyblockDatabase> chosenDatabases = new ConcurrentHashMap<>(); // Possibly decorated
     private final Logger logger;
 
     public SkyblockDatabaseRegistry(SkyblockPlatform platform) {
@@ -40,6 +44,29 @@ public class SkyblockDatabaseRegistry {
         databases.put(database.getName(), database);
     }
 
+    /**
+     * Registers a skyblock database through a factory, which allows new instances of it to be created, for example for every shard of a sharded database
+     *
+     * @param factory The factory, creating a new disabled database every time
+     */
+    public void register(Supplier<? extends SkyblockDatabase> factory) {
+        SkyblockDatabase database = factory.get();
+
+        factories.put(database.getName(), factory);
+        register(database);
+    }
+
+    /**
+     * Creates a new instance of a skyblock database, separate from the registered one
+     *
+     * @param name The name of the database
+     * @return The new database, or null if it does not exist or was not registered through a factory
+     */
+    public SkyblockDatabase create(String name) {
+        Supplier<? extends SkyblockDatabase> factory = name == null ? null : factories.get(name);
+        return factory == null ? null : factory.get();
+    }
+
     /**
      * Gets a skyblock database by name
      *
@@ -74,13 +101,7 @@ public class SkyblockDatabaseRegistry {
      * @return The chosen database
      */
     public <DataType extends SkyblockDatabase> DataType getChosenDatabase(Class<DataType> databaseClass) {
-        String name = chosenDatabases.get(databaseClass);
-
-        if (name == null) {
-            return null;
-        }
-
-        SkyblockDatabase database = get(name);
+        SkyblockDatabase database = chosenDatabases.get(databaseClass);
 
         if (database == null || !databaseClass.isAssignableFrom(database.getClass())) {
             return null;
@@ -96,18 +117,21 @@ public class SkyblockDatabaseRegistry {
      */
     private void registerDefaultDatabases(SkyblockPlatform platform) {
         // non-sql databases
-        register(new MongoSkyblockDatabase());
+        register(MongoSkyblockDatabase::new);
 
         // sql remote databases
-        register(new MariaDBSkyblockDatabase());
-        register(new MySQLSkyblockDatabase());
-        register(new PostgresSkyblockDatabase());
+        register(MariaDBSkyblockDatabase::new);
+        register(MySQLSkyblockDatabase::new);
+        register(PostgresSkyblockDatabase::new);
 
         // sql local databases
-        register(new SQLiteSkyblockDatabase(platform.getDataFolder()));
+        register(() -> new SQLiteSkyblockDatabase(platform.getDataFolder()));
+
+        // routing databases
+        register(new ShardedSkyblockDatabase(this::create));
 
         // cache databases
-        register(new RedisSkyblockCache());
+        register(RedisSkyblockCache::new);
     }
 
     /**
@@ -189,10 +213,14 @@ public class SkyblockDatabaseRegistry {
         }
 
         return database.enable(properties)
+            .exceptionally(error -> { // A database that throws while enabling is treated like one that failed to enable
+                logger.log(Level.SEVERE, "An error occurred while enabling database " + type, error);
+                return false;
+            })
             .thenCompose(success -> { // We try to enable the database, and if it fails, we try the fallback until there is no fallback
-                if (success) {
+                if (Boolean.TRUE.equals(success)) {
                     logger.info("Successfully enabled database " + type);
-                    chosenDatabases.put(clazz, type);
+                    chosenDatabases.put(clazz, setup.decorate(clazz.cast(database)));
                     return CompletableFuture.completedFuture(true);
                 }
 
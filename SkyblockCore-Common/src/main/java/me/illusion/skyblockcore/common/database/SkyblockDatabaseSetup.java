@@ -47,4 +47,15 @@ public interface SkyblockDatabaseSetup<DataType extends SkyblockDatabase> {
      */
     Class<DataType> getDatabaseClass();
 
+    /**
+     * Wraps the database once it is enabled, allowing layers such as write-behind queues to sit in front of it. The returned database is the one handed out by
+     * the registry.
+     *
+     * @param database The enabled database
+     * @return The database to use, by default the database itself
+     */
+    default DataType decorate(DataType database) {
+        return database;
+    }
+
 }
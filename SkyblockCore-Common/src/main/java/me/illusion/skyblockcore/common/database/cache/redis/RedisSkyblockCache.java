@@ -9,6 +9,7 @@ import java.util.function.Function;
 import me.illusion.skyblockcore.common.communication.redis.RedisController;
 import me.illusion.skyblockcore.common.config.ReadOnlyConfigurationSection;
 import me.illusion.skyblockcore.common.database.cache.SkyblockCacheDatabase;
+import me.illusion.skyblockcore.common.database.executor.DatabaseExecutor;
 import redis.clients.jedis.Jedis;
 
 /**
@@ -26,13 +27,15 @@ public class RedisSkyblockCache implements SkyblockCacheDatabase {
 
     @Override
     public CompletableFuture<Boolean> enable(ReadOnlyConfigurationSection properties) {
-        return CompletableFuture.supplyAsync(() -> {
+        DatabaseExecutor executor = DatabaseExecutor.fromProperties(getName(), properties, 8); // Jedis pools default to 8 connections
+
+        return executor.supply(() -> {
             String host = properties.getString("host", "localhost");
             int port = properties.getInt("port", 6379);
             String password = properties.getString("password");
             boolean ssl = properties.getBoolean("ssl", false);
 
-            controller = new RedisController(host, port, password, ssl);
+            controller = new RedisController(host, port, password, ssl, executor);
 
             return controller.isValid();
         });
@@ -63,16 +66,21 @@ public class RedisSkyblockCache implements SkyblockCacheDatabase {
         return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
     }
 
+    @Override
+    public CompletableFuture<Void> close(long deadline) {
+        if (controller != null) {
+            controller.close(Math.max(0, deadline - System.currentTimeMillis()));
+        }
+
+        return CompletableFuture.completedFuture(null);
+    }
+
     private <T> CompletableFuture<T> associate(Function<Jedis, T> function) {
         CompletableFuture<T> future = controller.supply(function);
 
         futures.add(future);
 
-        future.thenRun(() -> futures.remove(future));
-        future.exceptionally(throwable -> {
-            throwable.printStackTrace();
-            return null;
-        });
+        future.whenComplete((ignored, throwable) -> futures.remove(future)); // Errors are left to the caller and the metrics
 
         return future;
     }
@@ -82,11 +90,7 @@ public class RedisSkyblockCache implements SkyblockCacheDatabase {
 
         futures.add(future);
 
-        future.thenRun(() -> futures.remove(future));
-        future.exceptionally(throwable -> {
-            throwable.printStackTrace();
-            return null;
-        });
+        future.whenComplete((ignored, throwable) -> futures.remove(future));
 
         return future;
     }
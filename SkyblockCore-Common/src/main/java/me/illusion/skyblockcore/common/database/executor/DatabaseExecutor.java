@@ -0,0 +1,293 @@
+package me.illusion.skyblockcore.common.database.executor;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import me.illusion.skyblockcore.common.config.ReadOnlyConfigurationSection;
+import me.illusion.skyblockcore.common.utilities.metrics.LatencyHistogram;
+
+/**
+ * A dedicated executor for blocking database I/O. Running JDBC, mongo or jedis calls on the common pool starves every other user of it (and the common pool
+ * only has as many threads as there are cores), so each database gets its own executor instead.
+ * <p>
+ * The executor is either a bounded pool of platform threads, or one virtual thread per task when the runtime supports them. Either way, it keeps track of how
+ * many tasks are queued and running, how long they waited, and how many were rejected because the queue was full.
+ */
+public class DatabaseExecutor implements Executor {
+
+    private final LatencyHistogram queueTimes = new LatencyHistogram();
+    private final AtomicInteger queuedTasks = new AtomicInteger();
+    private final AtomicInteger runningTasks = new AtomicInteger();
+    private final LongAdder completedTasks = new LongAdder();
+    private final LongAdder rejectedTasks = new LongAdder();
+
+    private final String name;
+    private final ExecutorService delegate;
+    private final int threads;
+    private final boolean virtual;
+
+    private DatabaseExecutor(String name, ExecutorService delegate, int threads, boolean virtual) {
+        this.name = name;
+        this.delegate = delegate;
+        this.threads = threads;
+        this.virtual = virtual;
+    }
+
+    /**
+     * Creates an executor backed by a bounded pool of platform threads
+     *
+     * @param name          The name of the database, used for the thread names
+     * @param threads       The amount of threads
+     * @param queueCapacity The maximum amount of queued tasks, or 0 for no limit
+     * @return The executor
+     */
+    public static DatabaseExecutor platform(String name, int threads, int queueCapacity) {
+        int poolSize = Math.max(1, threads);
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new LinkedBlockingQueue<>(queueCapacity) : new LinkedBlockingQueue<>();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, queue, new DatabaseThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true); // Idle databases (e.g. a fallback that never got used) shouldn't keep threads around
+
+        return new DatabaseExecutor(name, executor, poolSize, false);
+    }
+
+    /**
+     * Creates an executor which runs every task on its own virtual thread. If the runtime doesn't support virtual threads, this falls back to a platform pool.
+     *
+     * @param name            The name of the database
+     * @param fallbackThreads The amount of threads to use if virtual threads are not available
+     * @param queueCapacity   The queue capacity to use if virtual threads are not available
+     * @return The executor
+     */
+    public static DatabaseExecutor virtual(String name, int fallbackThreads, int queueCapacity) {
+        try {
+            // We compile against Java 17, so we can't reference the method directly
+            ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return new DatabaseExecutor(name, executor, 0, true);
+        } catch (ReflectiveOperationException expected) { // Older runtime
+            return platform(name, fallbackThreads, queueCapacity);
+        }
+    }
+
+    /**
+     * Creates an executor from the database properties, under the "executor" section
+     *
+     * @param name           The name of the database
+     * @param properties     The properties
+     * @param defaultThreads The amount of threads to use if the properties don't specify one
+     * @return The executor
+     */
+    public static DatabaseExecutor fromProperties(String name, ReadOnlyConfigurationSection properties, int defaultThreads) {
+        int threads = properties.getInt("executor.threads", defaultThreads);
+        int queueCapacity = properties.getInt("executor.queue-capacity", 0);
+
+        if ("virtual".equalsIgnoreCase(properties.getString("executor.type", "platform"))) {
+            return virtual(name, threads, queueCapacity);
+        }
+
+        return platform(name, threads, queueCapacity);
+    }
+
+    /**
+     * Runs a supplier on this executor. If the executor is saturated, the returned future is completed exceptionally instead of throwing.
+     *
+     * @param supplier The supplier
+     * @param <T>      The return type
+     * @return A future which completes with the supplier's result
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        submit(() -> {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        }, future);
+
+        return future;
+    }
+
+    /**
+     * Runs a task on this executor. If the executor is saturated, the returned future is completed exceptionally instead of throwing.
+     *
+     * @param runnable The task
+     * @return A future which completes once the task has run
+     */
+    public CompletableFuture<Void> run(Runnable runnable) {
+        return supply(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a task on this executor, this allows it to be used with {@link CompletableFuture}'s async methods
+     *
+     * @param command The task
+     * @throws RejectedExecutionException If the queue is full
+     */
+    @Override
+    public void execute(Runnable command) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        submit(command, future);
+
+        if (future.isCompletedExceptionally()) {
+            throw new RejectedExecutionException("The " + name + " executor is saturated");
+        }
+    }
+
+    private void submit(Runnable task, CompletableFuture<?> future) {
+        long queuedAt = System.nanoTime();
+        queuedTasks.incrementAndGet();
+
+        try {
+            delegate.execute(() -> {
+                queuedTasks.decrementAndGet();
+                runningTasks.incrementAndGet();
+                queueTimes.recordSince(queuedAt);
+
+                try {
+                    task.run();
+                } finally {
+                    runningTasks.decrementAndGet();
+                    completedTasks.increment();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            queuedTasks.decrementAndGet();
+            rejectedTasks.increment();
+            future.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Stops accepting new tasks, and waits for the queued ones to finish
+     *
+     * @param timeout The maximum time to wait
+     * @param unit    The timeout's unit
+     * @return If every task finished in time
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        delegate.shutdown();
+
+        try {
+            return delegate.awaitTermination(timeout, unit);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Gets how long tasks waited before starting to run
+     *
+     * @return The queue time histogram
+     */
+    public LatencyHistogram getQueueTimes() {
+        return queueTimes;
+    }
+
+    /**
+     * Gets the amount of tasks waiting for a thread
+     *
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        return queuedTasks.get();
+    }
+
+    /**
+     * Gets the amount of tasks currently running
+     *
+     * @return The running tasks
+     */
+    public int getRunningTasks() {
+        return runningTasks.get();
+    }
+
+    /**
+     * Gets the amount of tasks that have finished running
+     *
+     * @return The completed tasks
+     */
+    public long getCompletedTasks() {
+        return completedTasks.sum();
+    }
+
+    /**
+     * Gets the amount of tasks that were rejected because the queue was full
+     *
+     * @return The rejected tasks
+     */
+    public long getRejectedTasks() {
+        return rejectedTasks.sum();
+    }
+
+    /**
+     * Gets how busy the executor is, from 0 to 1. A saturated executor has every thread busy, so any new task will queue. Virtual thread executors never
+     * saturate, and always report 0.
+     *
+     * @return The saturation
+     */
+    public double getSaturation() {
+        if (virtual) {
+            return 0;
+        }
+
+        return Math.min(1, (double) runningTasks.get() / threads);
+    }
+
+    /**
+     * Gets the name of the database this executor belongs to
+     *
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Checks if this executor runs tasks on virtual threads
+     *
+     * @return If this executor uses virtual threads
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    @Override
+    public String toString() {
+        return name + " executor: " + (virtual ? "virtual" : threads + " threads") + ", queued=" + getQueueDepth() + ", running=" + getRunningTasks()
+            + ", rejected=" + getRejectedTasks() + ", queue time " + queueTimes;
+    }
+
+    private static class DatabaseThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+        private final String name;
+
+        private DatabaseThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "skyblock-" + name + "-db-" + counter.incrementAndGet());
+            thread.setDaemon(true); // Never hold the server up on shutdown, databases are flushed explicitly
+            return thread;
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package me.illusion.skyblockcore.common.database.fetching;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import me.illusion.skyblockcore.common.data.IslandData;
 import me.illusion.skyblockcore.common.database.SkyblockDatabase;
@@ -60,6 +65,61 @@ public interface SkyblockFetchingDatabase extends SkyblockDatabase {
      */
     CompletableFuture<Void> setProfileId(UUID playerId, UUID profileId);
 
+    /**
+     * Fetches the island data of many islands at once. Implementations should override this with a single query where possible, the default implementation
+     * fetches every island separately.
+     *
+     * @param islandIds The islands' ids
+     * @return The island data, keyed by island id. Islands without data are left out
+     */
+    default CompletableFuture<Map<UUID, IslandData>> fetchIslandData(Collection<UUID> islandIds) {
+        return collect(islandIds, this::fetchIslandData);
+    }
+
+    /**
+     * Saves the island data of many islands at once. Implementations should override this with a batched write where possible, the default implementation saves
+     * every island separately.
+     *
+     * @param data The island data
+     * @return A future
+     */
+    default CompletableFuture<Void> saveIslandData(Collection<IslandData> data) {
+        return CompletableFuture.allOf(data.stream().map(this::saveIslandData).toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Fetches the profile ids of many players at once. Implementations should override this with a single query where possible, the default implementation
+     * fetches every profile id separately.
+     *
+     * @param playerIds The players' ids
+     * @return The profile ids, keyed by player id. Players without a profile id are left out
+     */
+    default CompletableFuture<Map<UUID, UUID>> getProfileIds(Collection<UUID> playerIds) {
+        return collect(playerIds, this::getProfileId);
+    }
+
+    /**
+     * Walks every island in the database, handing them to the consumer in batches. Implementations read through a cursor, so only one batch is held in memory
+     * at a time, no matter how many islands there are.
+     * <p>
+     * The consumer runs on a database thread, and the next batch is only read once it returns, so a slow consumer slows the scan down instead of piling up
+     * batches. The scan keeps a connection (and a database thread) for its whole duration. Islands written during the scan may or may not be visited.
+     *
+     * @param batchSize The amount of islands per batch, which is also the amount of rows fetched per round-trip
+     * @param consumer  The consumer, called once per batch. The list may be kept
+     * @return A future which completes with the amount of islands visited
+     */
+    CompletableFuture<Long> forEachIsland(int batchSize, Consumer<List<IslandData>> consumer);
+
+    /**
+     * Walks every profile id in the database, handing them to the consumer in batches, the same way {@link #forEachIsland(int, Consumer)} walks the islands.
+     *
+     * @param batchSize The amount of profile ids per batch, which is also the amount of rows fetched per round-trip
+     * @param consumer  The consumer, called once per batch with the profile ids keyed by player id. The map may be kept
+     * @return A future which completes with the amount of profile ids visited
+     */
+    CompletableFuture<Long> forEachProfile(int batchSize, Consumer<Map<UUID, UUID>> consumer);
+
     /**
      * Deletes the island data of a player
      *
@@ -99,6 +159,26 @@ public interface SkyblockFetchingDatabase extends SkyblockDatabase {
         });
     }
 
+    /**
+     * Runs a fetch for every key, collecting the non-null results into a map
+     *
+     * @param keys    The keys
+     * @param fetcher The fetch to run for every key
+     * @param <T>     The result type
+     * @return The results, keyed by key
+     */
+    private <T> CompletableFuture<Map<UUID, T>> collect(Collection<UUID> keys, Function<UUID, CompletableFuture<T>> fetcher) {
+        Map<UUID, T> results = new ConcurrentHashMap<>();
+
+        CompletableFuture<?>[] futures = keys.stream().map(key -> fetcher.apply(key).thenAccept(value -> {
+            if (value != null) {
+                results.put(key, value);
+            }
+        })).toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(futures).thenApply(ignored -> results);
+    }
+
     /**
      * Checks if the database is file based, meaning it is not a remote database and is not supported by complex networks
      *
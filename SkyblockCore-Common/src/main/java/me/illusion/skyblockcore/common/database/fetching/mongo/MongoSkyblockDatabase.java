@@ -5,17 +5,31 @@ import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import me.illusion.skyblockcore.common.config.ReadOnlyConfigurationSection;
 import me.illusion.skyblockcore.common.data.IslandData;
+import me.illusion.skyblockcore.common.database.executor.DatabaseExecutor;
 import me.illusion.skyblockcore.common.database.fetching.SkyblockFetchingDatabase;
 import me.illusion.skyblockcore.common.database.fetching.mongo.codec.MongoIslandDataCodec;
 import me.illusion.skyblockcore.common.database.fetching.mongo.codec.MongoUUIDCodec;
 import org.bson.Document;
+import org.bson.UuidRepresentation;
 import org.bson.codecs.configuration.CodecRegistries;
 import org.bson.codecs.configuration.CodecRegistry;
 
@@ -26,11 +40,11 @@ public class MongoSkyblockDatabase implements SkyblockFetchingDatabase {
 
     private final Set<CompletableFuture<?>> futures = ConcurrentHashMap.newKeySet();
 
+    private DatabaseExecutor executor;
     private MongoClient mongoClient;
 
-    private MongoCollection<IslandData> islandDataCollection;
-    private MongoCollection<UUID> islandIdCollection;
-    private MongoCollection<UUID> profileIdCollection;
+    private MongoCollection<IslandData> islandDataCollection; // Also answers island id lookups by owner, through the ownerId index
+    private MongoCollection<Document> profileIdCollection;
 
     @Override
     public String getName() {
@@ -39,6 +53,8 @@ public class MongoSkyblockDatabase implements SkyblockFetchingDatabase {
 
     @Override
     public CompletableFuture<Boolean> enable(ReadOnlyConfigurationSection properties) {
+        executor = DatabaseExecutor.fromProperties(getName(), properties, 8);
+
         return associate(() -> {
             String connectionString = properties.getString("connection-string");
 
@@ -56,23 +72,27 @@ public class MongoSkyblockDatabase implements SkyblockFetchingDatabase {
             String database = properties.getString("database", "skyblock");
             String collectionName = properties.getString("collection", "islands");
 
-            CodecRegistry codecs = CodecRegistries.fromCodecs(
-                MongoIslandDataCodec.INSTANCE,
-                MongoUUIDCodec.INSTANCE
+            // Our codecs first, the defaults are still needed for filters and profile documents
+            CodecRegistry codecs = CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(MongoIslandDataCodec.INSTANCE, MongoUUIDCodec.INSTANCE),
+                MongoClientSettings.getDefaultCodecRegistry()
             );
 
             try {
                 MongoClientSettings settings = MongoClientSettings.builder()
                     .applyConnectionString(new ConnectionString(connectionString))
                     .codecRegistry(codecs)
+                    .uuidRepresentation(UuidRepresentation.STANDARD) // Matches the binary subtype our UUID codec writes
                     .build();
 
                 mongoClient = MongoClients.create(settings);
 
                 islandDataCollection = mongoClient.getDatabase(database)
                     .getCollection(collectionName, IslandData.class); // if the collection doesn't exist, it will be created
-                islandIdCollection = mongoClient.getDatabase(database).getCollection("island_ids", UUID.class);
-                profileIdCollection = mongoClient.getDatabase(database).getCollection("profile_ids", UUID.class);
+                profileIdCollection = mongoClient.getDatabase(database).getCollection("profile_ids");
+
+                islandDataCollection.createIndex(Indexes.ascending("ownerId")); // Player island lookups go straight to the island data
+                profileIdCollection.createIndex(Indexes.ascending("playerId"));
 
                 // validate the session
                 mongoClient.listDatabaseNames().first(); // throws an exception if the connection is invalid
@@ -86,13 +106,8 @@ public class MongoSkyblockDatabase implements SkyblockFetchingDatabase {
     @Override
     public CompletableFuture<UUID> fetchIslandId(UUID profileId) {
         return associate(() -> {
-            Document filter = new Document("ownerId", profileId);
-
-            for (UUID id : islandIdCollection.find(filter)) {
-                return id;
-            }
-
-            return null; // What if there is no island id?
+            IslandData data = islandDataCollection.find(Filters.eq("ownerId", profileId)).first();
+            return data == null ? null : data.getIslandId();
         });
     }
 
@@ -112,77 +127,196 @@ public class MongoSkyblockDatabase implements SkyblockFetchingDatabase {
     @Override
     public CompletableFuture<Void> saveIslandData(IslandData data) {
         return associate(() -> {
-            Document filter = new Document("islandId", data.getIslandId());
-            islandDataCollection.replaceOne(filter, data);
+            islandDataCollection.replaceOne(Filters.eq("islandId", data.getIslandId()), data, new ReplaceOptions().upsert(true));
+        });
+    }
+
+    @Override
+    public CompletableFuture<IslandData> fetchPlayerIsland(UUID profileId) {
+        return associate(() -> islandDataCollection.find(Filters.eq("ownerId", profileId)).first()); // The island data already holds the owner
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, IslandData>> fetchIslandData(Collection<UUID> islandIds) {
+        return associate(() -> {
+            Map<UUID, IslandData> results = new HashMap<>();
+
+            if (islandIds.isEmpty()) {
+                return results;
+            }
 
-            // Let's also set the island id to the owner
-            Document idFilter = new Document("ownerId", data.getOwnerId());
-            islandIdCollection.replaceOne(idFilter, data.getIslandId());
+            for (IslandData data : islandDataCollection.find(Filters.in("islandId", islandIds))) {
+                results.put(data.getIslandId(), data);
+            }
+
+            return results;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> saveIslandData(Collection<IslandData> data) {
+        return associate(() -> {
+            if (data.isEmpty()) {
+                return;
+            }
+
+            ReplaceOptions upsert = new ReplaceOptions().upsert(true);
+
+            List<ReplaceOneModel<IslandData>> writes = new ArrayList<>();
+
+            for (IslandData islandData : data) {
+                writes.add(new ReplaceOneModel<>(Filters.eq("islandId", islandData.getIslandId()), islandData, upsert));
+            }
+
+            // One round-trip, the driver splits it further if it exceeds the maximum message size
+            islandDataCollection.bulkWrite(writes);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> forEachIsland(int batchSize, Consumer<List<IslandData>> consumer) {
+        return associate(() -> {
+            long visited = 0;
+
+            // The batch size keeps the driver from fetching more documents per getMore than we are about to hand out
+            try (MongoCursor<IslandData> cursor = islandDataCollection.find().batchSize(batchSize).cursor()) {
+                List<IslandData> batch = new ArrayList<>(batchSize);
+
+                while (cursor.hasNext()) {
+                    batch.add(cursor.next());
+
+                    if (batch.size() >= batchSize) {
+                        consumer.accept(batch);
+                        visited += batch.size();
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+
+                if (!batch.isEmpty()) {
+                    consumer.accept(batch);
+                    visited += batch.size();
+                }
+            }
+
+            return visited;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> forEachProfile(int batchSize, Consumer<Map<UUID, UUID>> consumer) {
+        return associate(() -> {
+            long visited = 0;
+
+            try (MongoCursor<Document> cursor = profileIdCollection.find().batchSize(batchSize).cursor()) {
+                Map<UUID, UUID> batch = new HashMap<>();
+
+                while (cursor.hasNext()) {
+                    Document profile = cursor.next();
+                    batch.put(profile.get("playerId", UUID.class), profile.get("profileId", UUID.class));
+
+                    if (batch.size() >= batchSize) {
+                        consumer.accept(batch);
+                        visited += batch.size();
+                        batch = new HashMap<>();
+                    }
+                }
+
+                if (!batch.isEmpty()) {
+                    consumer.accept(batch);
+                    visited += batch.size();
+                }
+            }
+
+            return visited;
         });
     }
 
     @Override
     public CompletableFuture<Void> deleteIslandData(UUID islandId) {
         return associate(() -> {
-            Document filter = new Document("islandId", islandId);
-            islandDataCollection.deleteOne(filter);
-            islandIdCollection.deleteOne(filter);
+            islandDataCollection.deleteOne(Filters.eq("islandId", islandId));
         });
     }
 
     @Override
     public CompletableFuture<UUID> getProfileId(UUID playerId) {
         return associate(() -> {
-            Document filter = new Document("playerId", playerId);
+            Document profile = profileIdCollection.find(Filters.eq("playerId", playerId)).first();
+            return profile == null ? null : profile.get("profileId", UUID.class);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, UUID>> getProfileIds(Collection<UUID> playerIds) {
+        return associate(() -> {
+            Map<UUID, UUID> results = new HashMap<>();
+
+            if (playerIds.isEmpty()) {
+                return results;
+            }
 
-            for (UUID id : profileIdCollection.find(filter)) {
-                return id;
+            for (Document profile : profileIdCollection.find(Filters.in("playerId", playerIds))) {
+                results.put(profile.get("playerId", UUID.class), profile.get("profileId", UUID.class));
             }
 
-            return null; // What if there is no profile id?
+            return results;
         });
     }
 
     @Override
     public CompletableFuture<Void> setProfileId(UUID playerId, UUID profileId) {
         return associate(() -> {
-            Document filter = new Document("playerId", playerId);
-            profileIdCollection.replaceOne(filter, profileId);
+            Document profile = new Document("playerId", playerId).append("profileId", profileId);
+            profileIdCollection.replaceOne(Filters.eq("playerId", playerId), profile, new ReplaceOptions().upsert(true));
         });
     }
 
     private <T> CompletableFuture<T> associate(Supplier<T> supplier) {
-        CompletableFuture<T> future = CompletableFuture.supplyAsync(supplier);
+        CompletableFuture<T> future = executor.supply(supplier);
 
-        future.thenRun(() -> futures.remove(future));
-        future.exceptionally(throwable -> {
-            throwable.printStackTrace();
-            return null;
-        });
+        future.whenComplete((ignored, throwable) -> futures.remove(future));
 
         futures.add(future);
         return future;
     }
 
     private CompletableFuture<Void> associate(Runnable runnable) {
-        CompletableFuture<Void> future = CompletableFuture.runAsync(runnable);
+        CompletableFuture<Void> future = executor.run(runnable);
 
-        future.thenRun(() -> futures.remove(future));
-        future.exceptionally(throwable -> {
-            throwable.printStackTrace();
-            return null;
-        });
+        future.whenComplete((ignored, throwable) -> futures.remove(future));
 
         futures.add(future);
         return future;
     }
 
 
+    /**
+     * Gets the executor which runs this database's queries, this is null until the database is enabled
+     *
+     * @return The executor
+     */
+    public DatabaseExecutor getExecutor() {
+        return executor;
+    }
+
     @Override
     public CompletableFuture<Void> flush() {
         return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
     }
 
+    @Override
+    public CompletableFuture<Void> close(long deadline) {
+        if (executor != null) { // Before the client, queries still running need it
+            executor.shutdown(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        }
+
+        if (mongoClient != null) {
+            mongoClient.close();
+        }
+
+        return CompletableFuture.completedFuture(null);
+    }
+
     private String createConnectionString(String ip, int port, String authsource, String username, String password, boolean ssl) {
         StringBuilder builder = new StringBuilder();
         builder.append("mongodb://");
@@ -4,6 +4,7 @@ import java.util.UUID;
 import me.illusion.skyblockcore.common.data.IslandData;
 import org.bson.BsonBinary;
 import org.bson.BsonReader;
+import org.bson.BsonType;
 import org.bson.BsonWriter;
 import org.bson.codecs.Codec;
 import org.bson.codecs.DecoderContext;
@@ -23,8 +24,17 @@ public class MongoIslandDataCodec implements Codec<IslandData> {
     public IslandData decode(BsonReader reader, DecoderContext decoderContext) {
         reader.readStartDocument();
 
-        UUID islandId = readUUID("islandId", reader);
-        UUID ownerId = readUUID("ownerId", reader);
+        UUID islandId = null;
+        UUID ownerId = null;
+
+        // Stored documents also hold an _id, and field order isn't guaranteed after an update, so fields are read by name
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "islandId" -> islandId = reader.readBinaryData().asUuid();
+                case "ownerId" -> ownerId = reader.readBinaryData().asUuid();
+                default -> reader.skipValue();
+            }
+        }
 
         reader.readEndDocument();
 
@@ -49,8 +59,4 @@ public class MongoIslandDataCodec implements Codec<IslandData> {
     private void writeUUID(String name, UUID uuid, BsonWriter writer) {
         writer.writeBinaryData(name, new BsonBinary(uuid));
     }
-
-    private UUID readUUID(String name, BsonReader reader) {
-        return reader.readBinaryData(name).asUuid();
-    }
 }
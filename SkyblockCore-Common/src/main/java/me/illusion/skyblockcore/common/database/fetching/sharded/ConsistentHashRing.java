@@ -0,0 +1,95 @@
+package me.illusion.skyblockcore.common.database.fetching.sharded;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * An immutable consistent hash ring. Every node is placed on the ring many times (virtual nodes), and a key belongs to the first node after it on the ring.
+ * <p>
+ * Adding a node only takes keys from the other nodes, it never moves keys between existing nodes, so growing from N to N + 1 nodes moves roughly 1 / (N + 1)
+ * of the keys. Node positions only depend on the node names, so every server builds the same ring from the same configuration.
+ *
+ * @param <T> The node type
+ */
+public class ConsistentHashRing<T> {
+
+    private final NavigableMap<Long, T> ring = new TreeMap<>();
+    private final Map<String, T> nodes;
+
+    /**
+     * Creates a new ring
+     *
+     * @param nodes        The nodes, keyed by their name
+     * @param virtualNodes The amount of times every node is placed on the ring, more places spread the keys more evenly
+     */
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one node");
+        }
+
+        this.nodes = Collections.unmodifiableMap(new LinkedHashMap<>(nodes));
+
+        for (Map.Entry<String, T> entry : nodes.entrySet()) {
+            for (int index = 0; index < Math.max(1, virtualNodes); index++) {
+                UUID position = UUID.nameUUIDFromBytes((entry.getKey() + "#" + index).getBytes(StandardCharsets.UTF_8));
+                ring.put(hash(position), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Gets the node a key belongs to
+     *
+     * @param key The key
+     * @return The node
+     */
+    public T get(UUID key) {
+        Map.Entry<Long, T> entry = ring.ceilingEntry(hash(key));
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue(); // Wrap around
+    }
+
+    /**
+     * Groups keys by the node they belong to
+     *
+     * @param keys The keys
+     * @return The keys, grouped by node
+     */
+    public Map<T, Collection<UUID>> group(Collection<UUID> keys) {
+        Map<T, Collection<UUID>> groups = new LinkedHashMap<>();
+
+        for (UUID key : keys) {
+            groups.computeIfAbsent(get(key), ignored -> new ArrayList<>()).add(key);
+        }
+
+        return groups;
+    }
+
+    /**
+     * Gets the nodes on this ring
+     *
+     * @return The nodes, keyed by their name
+     */
+    public Map<String, T> getNodes() {
+        return nodes;
+    }
+
+    private static long hash(UUID uuid) {
+        // Random UUIDs are already well spread, but the bits are mixed anyway (murmur3's finalizer), so sequential or name based ids spread evenly too
+        long hash = uuid.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ uuid.getLeastSignificantBits();
+
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB93E53BA1A2FL;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
@@ -0,0 +1,202 @@
+package me.illusion.skyblockcore.common.database.fetching.sharded;
+
+import com.google.common.collect.Lists;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import me.illusion.skyblockcore.common.data.IslandData;
+import me.illusion.skyblockcore.common.database.fetching.SkyblockFetchingDatabase;
+
+/**
+ * Moves data between shards after shards were added to a {@link ShardedSkyblockDatabase}. The database must be configured with its previous shards, so it
+ * knows where every key used to live.
+ * <p>
+ * Data is copied to its new shard before it is removed from its old one, and the sharded database keeps reading from the old shards until the move is done, so
+ * rebalancing can run while the servers are up. Once every id was moved, "previous-shards" can be removed from the configuration.
+ * <p>
+ * {@link #rebalanceIslands(int)} and {@link #rebalanceProfiles(int)} scan the database and move everything that is misplaced. The move methods work on the ids
+ * they are given, callers should pass them in batches (a few hundred at a time) to keep every shard's bulk queries small.
+ */
+public class ShardRebalancer {
+
+    private final ShardedSkyblockDatabase database;
+
+    public ShardRebalancer(ShardedSkyblockDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Moves islands to the shards they belong to
+     *
+     * @param islandIds The islands' ids
+     * @return A future which completes with the amount of islands that were moved
+     */
+    public CompletableFuture<Integer> moveIslands(Collection<UUID> islandIds) {
+        ConsistentHashRing<SkyblockFetchingDatabase> ring = database.getRing();
+        ConsistentHashRing<SkyblockFetchingDatabase> previousRing = requirePreviousRing();
+
+        return database.fetchIslandData(islandIds).thenCompose(islands -> {
+            Map<SkyblockFetchingDatabase, List<IslandData>> copies = new HashMap<>();
+            Map<SkyblockFetchingDatabase, List<UUID>> removals = new HashMap<>();
+            int moved = 0;
+
+            for (IslandData island : islands.values()) {
+                Set<SkyblockFetchingDatabase> targets = ShardedSkyblockDatabase.getShards(ring, island);
+                Set<SkyblockFetchingDatabase> sources = ShardedSkyblockDatabase.getShards(previousRing, island);
+
+                if (targets.equals(sources)) {
+                    continue;
+                }
+
+                moved++;
+
+                for (SkyblockFetchingDatabase target : targets) {
+                    if (!sources.contains(target)) {
+                        copies.computeIfAbsent(target, ignored -> new ArrayList<>()).add(island);
+                    }
+                }
+
+                for (SkyblockFetchingDatabase source : sources) {
+                    if (!targets.contains(source)) {
+                        removals.computeIfAbsent(source, ignored -> new ArrayList<>()).add(island.getIslandId());
+                    }
+                }
+            }
+
+            int movedIslands = moved;
+
+            // Only remove the old copies once every new copy is saved, so a failed copy never loses an island
+            return allOf(copies.entrySet().stream().map(entry -> entry.getKey().saveIslandData(entry.getValue())).toList())
+                .thenCompose(ignored -> allOf(removals.entrySet().stream().flatMap(entry -> entry.getValue().stream()
+                    .map(islandId -> entry.getKey().deleteIslandData(islandId))).toList()))
+                .thenApply(ignored -> movedIslands);
+        });
+    }
+
+    /**
+     * Moves profile ids to the shards they belong to. Old profile rows are left in place, there is no way to delete them, and they are never read again.
+     * Players who already have a profile id on their new shard are skipped, their old row is stale.
+     *
+     * @param playerIds The players' ids
+     * @return A future which completes with the amount of profile ids that were moved
+     */
+    public CompletableFuture<Integer> moveProfiles(Collection<UUID> playerIds) {
+        ConsistentHashRing<SkyblockFetchingDatabase> ring = database.getRing();
+        ConsistentHashRing<SkyblockFetchingDatabase> previousRing = requirePreviousRing();
+
+        Set<UUID> moving = new HashSet<>();
+
+        for (UUID playerId : playerIds) {
+            if (ring.get(playerId) != previousRing.get(playerId)) {
+                moving.add(playerId);
+            }
+        }
+
+        return getProfileIds(ring, moving).thenCompose(moved -> {
+            moving.removeAll(moved.keySet());
+            return getProfileIds(previousRing, moving);
+        }).thenCompose(profiles -> {
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+
+            for (Map.Entry<UUID, UUID> profile : profiles.entrySet()) {
+                writes.add(ring.get(profile.getKey()).setProfileId(profile.getKey(), profile.getValue()));
+            }
+
+            return allOf(writes).thenApply(ignored -> profiles.size());
+        });
+    }
+
+    /**
+     * Scans the database for islands which are not on the shards they belong to, and moves them in batches. The islands are only moved once the scan is
+     * done, as moving them from inside the scan would need a second database thread while the scan holds one.
+     *
+     * @param batchSize The amount of islands read per round-trip, and moved at once
+     * @return A future which completes with the amount of islands that were moved
+     */
+    public CompletableFuture<Integer> rebalanceIslands(int batchSize) {
+        ConsistentHashRing<SkyblockFetchingDatabase> ring = database.getRing();
+        ConsistentHashRing<SkyblockFetchingDatabase> previousRing = requirePreviousRing();
+
+        Set<UUID> misplaced = new LinkedHashSet<>(); // Only the ids that have to move are kept, a set as the scan may visit an island twice
+
+        return database.forEachIsland(batchSize, batch -> {
+            for (IslandData island : batch) {
+                if (!ShardedSkyblockDatabase.getShards(ring, island).equals(ShardedSkyblockDatabase.getShards(previousRing, island))) {
+                    misplaced.add(island.getIslandId());
+                }
+            }
+        }).thenCompose(ignored -> moveInBatches(misplaced, batchSize, this::moveIslands));
+    }
+
+    /**
+     * Scans the database for profile ids which are not on the shard they belong to, and moves them in batches, like {@link #rebalanceIslands(int)}.
+     *
+     * @param batchSize The amount of profile ids read per round-trip, and moved at once
+     * @return A future which completes with the amount of profile ids that were moved
+     */
+    public CompletableFuture<Integer> rebalanceProfiles(int batchSize) {
+        ConsistentHashRing<SkyblockFetchingDatabase> ring = database.getRing();
+        ConsistentHashRing<SkyblockFetchingDatabase> previousRing = requirePreviousRing();
+
+        Set<UUID> misplaced = new LinkedHashSet<>();
+
+        return database.forEachProfile(batchSize, batch -> {
+            for (UUID playerId : batch.keySet()) {
+                if (ring.get(playerId) != previousRing.get(playerId)) {
+                    misplaced.add(playerId);
+                }
+            }
+        }).thenCompose(ignored -> moveInBatches(misplaced, batchSize, this::moveProfiles));
+    }
+
+    // One batch at a time, so a big rebalance never floods the shards
+    private CompletableFuture<Integer> moveInBatches(Collection<UUID> ids, int batchSize, Function<List<UUID>, CompletableFuture<Integer>> mover) {
+        CompletableFuture<Integer> future = CompletableFuture.completedFuture(0);
+
+        for (List<UUID> batch : Lists.partition(new ArrayList<>(ids), Math.max(1, batchSize))) {
+            future = future.thenCompose(moved -> mover.apply(batch).thenApply(batchMoved -> moved + batchMoved));
+        }
+
+        return future;
+    }
+
+    private static CompletableFuture<Map<UUID, UUID>> getProfileIds(ConsistentHashRing<SkyblockFetchingDatabase> ring, Collection<UUID> playerIds) {
+        List<CompletableFuture<Map<UUID, UUID>>> futures = new ArrayList<>();
+
+        for (Map.Entry<SkyblockFetchingDatabase, Collection<UUID>> entry : ring.group(playerIds).entrySet()) {
+            futures.add(entry.getKey().getProfileIds(entry.getValue()));
+        }
+
+        return allOf(futures).thenApply(ignored -> {
+            Map<UUID, UUID> results = new HashMap<>();
+
+            for (CompletableFuture<Map<UUID, UUID>> future : futures) {
+                results.putAll(future.join());
+            }
+
+            return results;
+        });
+    }
+
+    private ConsistentHashRing<SkyblockFetchingDatabase> requirePreviousRing() {
+        ConsistentHashRing<SkyblockFetchingDatabase> previousRing = database.getPreviousRing();
+
+        if (previousRing == null) {
+            throw new IllegalStateException("The sharded database has no previous-shards configured, there is nothing to rebalance");
+        }
+
+        return previousRing;
+    }
+
+    private static CompletableFuture<Void> allOf(List<? extends CompletableFuture<?>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+}
@@ -0,0 +1,375 @@
+package me.illusion.skyblockcore.common.database.fetching.sharded;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import me.illusion.skyblockcore.common.config.ReadOnlyConfigurationSection;
+import me.illusion.skyblockcore.common.data.IslandData;
+import me.illusion.skyblockcore.common.database.SkyblockDatabase;
+import me.illusion.skyblockcore.common.database.fetching.SkyblockFetchingDatabase;
+
+/**
+ * A fetching database which spreads its data over several other fetching databases (shards), using a {@link ConsistentHashRing}.
+ * <p>
+ * Every record lives on the shard its key hashes to. Island data is looked up both by island id and by owner, so an island is saved on the shard of its id and
+ * on the shard of its owner (usually two different shards), and both lookups only ever touch a single shard. Profile ids live on the shard of the player.
+ * <p>
+ * When shards are added, "previous-shards" lists the shards from before. Keys which moved are then read from their new shard first, and from their old shard
+ * if they were not rebalanced yet, so a shard can be added while the servers are running. {@link ShardRebalancer} moves the data over.
+ */
+public class ShardedSkyblockDatabase implements SkyblockFetchingDatabase {
+
+    private static final long FAILED_CLOSE_TIMEOUT_MS = 5000;
+
+    private final Function<String, SkyblockDatabase> factory;
+    private final Map<String, SkyblockFetchingDatabase> shards = new LinkedHashMap<>();
+
+    private ConsistentHashRing<SkyblockFetchingDatabase> ring;
+    private ConsistentHashRing<SkyblockFetchingDatabase> previousRing; // Null unless a rebalance is in progress
+
+    /**
+     * Creates a new sharded database
+     *
+     * @param factory Creates a new, disabled, database instance from its name, every shard gets its own instance
+     */
+    public ShardedSkyblockDatabase(Function<String, SkyblockDatabase> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public String getName() {
+        return "sharded";
+    }
+
+    @Override
+    public CompletableFuture<Boolean> enable(ReadOnlyConfigurationSection properties) {
+        ReadOnlyConfigurationSection shardsSection = properties.getSection("shards");
+
+        if (shardsSection == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        Map<String, ReadOnlyConfigurationSection> shardProperties = new LinkedHashMap<>();
+
+        // The whole configuration is checked before any shard is enabled, so a mistake never leaves a shard running that nobody closes
+        for (String name : shardsSection.getKeys()) {
+            ReadOnlyConfigurationSection section = shardsSection.getSection(name);
+            SkyblockDatabase database = section == null ? null : factory.apply(section.getString("type"));
+
+            if (!(database instanceof SkyblockFetchingDatabase shard) || shard instanceof ShardedSkyblockDatabase) {
+                return CompletableFuture.completedFuture(false); // Unknown type, or a shard pointing back at us
+            }
+
+            shards.put(name, shard);
+            shardProperties.put(name, section);
+        }
+
+        if (shards.isEmpty()) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        int virtualNodes = properties.getInt("virtual-nodes", 160);
+        Map<String, SkyblockFetchingDatabase> previousShards = getPreviousShards(properties.get("previous-shards", List.class));
+
+        if (previousShards == null) {
+            return CompletableFuture.completedFuture(false); // A previous shard that isn't configured anymore would lose its data
+        }
+
+        ring = new ConsistentHashRing<>(shards, virtualNodes);
+        previousRing = previousShards.isEmpty() ? null : new ConsistentHashRing<>(previousShards, virtualNodes);
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        shards.forEach((name, shard) -> futures.add(shard.enable(shardProperties.get(name))));
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+            .handle((ignored, error) -> error == null && futures.stream().allMatch(future -> Boolean.TRUE.equals(future.join())))
+            .thenCompose(success -> {
+                if (success) {
+                    return CompletableFuture.completedFuture(true);
+                }
+
+                // The registry moves on to the fallback, so the shards that did start must not keep their connections and threads
+                return close(System.currentTimeMillis() + FAILED_CLOSE_TIMEOUT_MS).handle((ignored, error) -> false);
+            });
+    }
+
+    private Map<String, SkyblockFetchingDatabase> getPreviousShards(List<?> names) {
+        Map<String, SkyblockFetchingDatabase> previousShards = new LinkedHashMap<>();
+
+        if (names == null) {
+            return previousShards;
+        }
+
+        for (Object name : names) {
+            SkyblockFetchingDatabase shard = shards.get(String.valueOf(name));
+
+            if (shard == null) {
+                return null;
+            }
+
+            previousShards.put(String.valueOf(name), shard);
+        }
+
+        return previousShards;
+    }
+
+    @Override
+    public CompletableFuture<UUID> fetchIslandId(UUID profileId) {
+        return read(profileId, shard -> shard.fetchIslandId(profileId));
+    }
+
+    @Override
+    public CompletableFuture<IslandData> fetchIslandData(UUID islandId) {
+        return read(islandId, shard -> shard.fetchIslandData(islandId));
+    }
+
+    @Override
+    public CompletableFuture<IslandData> fetchPlayerIsland(UUID profileId) {
+        return read(profileId, shard -> shard.fetchPlayerIsland(profileId)); // The owner's shard holds a full copy of the island
+    }
+
+    @Override
+    public CompletableFuture<UUID> getProfileId(UUID playerId) {
+        return read(playerId, shard -> shard.getProfileId(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveIslandData(IslandData data) {
+        return CompletableFuture.allOf(getShards(ring, data).stream().map(shard -> shard.saveIslandData(data)).toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteIslandData(UUID islandId) {
+        // The owner is needed to find the second copy
+        return fetchIslandData(islandId).thenCompose(data -> {
+            Set<SkyblockFetchingDatabase> targets = new LinkedHashSet<>();
+
+            targets.add(ring.get(islandId));
+
+            if (data != null) {
+                targets.addAll(getShards(ring, data));
+            }
+
+            if (previousRing != null) { // Copies that were not rebalanced yet
+                targets.add(previousRing.get(islandId));
+
+                if (data != null) {
+                    targets.addAll(getShards(previousRing, data));
+                }
+            }
+
+            return CompletableFuture.allOf(targets.stream().map(shard -> shard.deleteIslandData(islandId)).toArray(CompletableFuture[]::new));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> setProfileId(UUID playerId, UUID profileId) {
+        return ring.get(playerId).setProfileId(playerId, profileId);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, IslandData>> fetchIslandData(Collection<UUID> islandIds) {
+        return readAll(islandIds, SkyblockFetchingDatabase::fetchIslandData);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveIslandData(Collection<IslandData> data) {
+        Map<SkyblockFetchingDatabase, List<IslandData>> groups = new HashMap<>();
+
+        for (IslandData island : data) {
+            for (SkyblockFetchingDatabase shard : getShards(ring, island)) {
+                groups.computeIfAbsent(shard, ignored -> new ArrayList<>()).add(island);
+            }
+        }
+
+        return CompletableFuture.allOf(groups.entrySet().stream().map(entry -> entry.getKey().saveIslandData(entry.getValue()))
+            .toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, UUID>> getProfileIds(Collection<UUID> playerIds) {
+        return readAll(playerIds, SkyblockFetchingDatabase::getProfileIds);
+    }
+
+    @Override
+    public CompletableFuture<Long> forEachIsland(int batchSize, Consumer<List<IslandData>> consumer) {
+        CompletableFuture<Long> future = CompletableFuture.completedFuture(0L);
+
+        // One shard at a time, so the consumer is never called concurrently
+        for (SkyblockFetchingDatabase shard : shards.values()) {
+            LongAdder shardVisited = new LongAdder(); // The shard's own count includes the copies we skip
+
+            future = future.thenCompose(visited -> shard.forEachIsland(batchSize, batch -> {
+                List<IslandData> owned = new ArrayList<>(batch.size());
+
+                for (IslandData island : batch) {
+                    if (isHome(shard, island.getIslandId())) { // Skips the owner's copy, so every island is visited once
+                        owned.add(island);
+                    }
+                }
+
+                if (!owned.isEmpty()) {
+                    consumer.accept(owned);
+                    shardVisited.add(owned.size());
+                }
+            }).thenApply(ignored -> visited + shardVisited.sum()));
+        }
+
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Long> forEachProfile(int batchSize, Consumer<Map<UUID, UUID>> consumer) {
+        CompletableFuture<Long> future = CompletableFuture.completedFuture(0L);
+
+        for (SkyblockFetchingDatabase shard : shards.values()) {
+            LongAdder shardVisited = new LongAdder();
+
+            future = future.thenCompose(visited -> shard.forEachProfile(batchSize, batch -> {
+                Map<UUID, UUID> owned = new HashMap<>();
+
+                batch.forEach((playerId, profileId) -> {
+                    if (isHome(shard, playerId)) { // Skips the rows left behind by a rebalance
+                        owned.put(playerId, profileId);
+                    }
+                });
+
+                if (!owned.isEmpty()) {
+                    consumer.accept(owned);
+                    shardVisited.add(owned.size());
+                }
+            }).thenApply(ignored -> visited + shardVisited.sum()));
+        }
+
+        return future;
+    }
+
+    // Whether a shard holds the primary copy of a key, an island id or a player id. While rebalancing, a key that hasn't moved yet is still at home on its
+    // previous shard, so it may be visited twice while it is being moved
+    private boolean isHome(SkyblockFetchingDatabase shard, UUID key) {
+        return ring.get(key) == shard || (previousRing != null && previousRing.get(key) == shard);
+    }
+
+    @Override
+    public CompletableFuture<Void> flush() {
+        return CompletableFuture.allOf(shards.values().stream().map(SkyblockFetchingDatabase::flush).toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public CompletableFuture<Void> close(long deadline) {
+        return CompletableFuture.allOf(shards.values().stream().map(shard -> shard.close(deadline)).toArray(CompletableFuture[]::new));
+    }
+
+    // Reads a single key from its shard, falling back to its previous shard if it was not rebalanced yet
+    private <T> CompletableFuture<T> read(UUID key, Function<SkyblockFetchingDatabase, CompletableFuture<T>> reader) {
+        SkyblockFetchingDatabase shard = ring.get(key);
+        CompletableFuture<T> future = reader.apply(shard);
+
+        if (previousRing == null || previousRing.get(key) == shard) {
+            return future;
+        }
+
+        SkyblockFetchingDatabase previousShard = previousRing.get(key);
+        return future.thenCompose(value -> value != null ? CompletableFuture.completedFuture(value) : reader.apply(previousShard));
+    }
+
+    // Reads many keys with one bulk read per shard, falling back to the previous shards for the keys that were not found
+    private <T> CompletableFuture<Map<UUID, T>> readAll(Collection<UUID> keys,
+        BiFunction<SkyblockFetchingDatabase, Collection<UUID>, CompletableFuture<Map<UUID, T>>> reader) {
+        return fanOut(ring, keys, reader).thenCompose(results -> {
+            if (previousRing == null || results.size() == keys.size()) {
+                return CompletableFuture.completedFuture(results);
+            }
+
+            List<UUID> missing = new ArrayList<>();
+
+            for (UUID key : keys) {
+                if (!results.containsKey(key) && previousRing.get(key) != ring.get(key)) {
+                    missing.add(key);
+                }
+            }
+
+            if (missing.isEmpty()) {
+                return CompletableFuture.completedFuture(results);
+            }
+
+            return fanOut(previousRing, missing, reader).thenApply(previousResults -> {
+                results.putAll(previousResults);
+                return results;
+            });
+        });
+    }
+
+    private <T> CompletableFuture<Map<UUID, T>> fanOut(ConsistentHashRing<SkyblockFetchingDatabase> ring, Collection<UUID> keys,
+        BiFunction<SkyblockFetchingDatabase, Collection<UUID>, CompletableFuture<Map<UUID, T>>> reader) {
+        List<CompletableFuture<Map<UUID, T>>> futures = new ArrayList<>();
+
+        for (Map.Entry<SkyblockFetchingDatabase, Collection<UUID>> entry : ring.group(keys).entrySet()) {
+            futures.add(reader.apply(entry.getKey(), entry.getValue()));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<UUID, T> results = new HashMap<>();
+
+            for (CompletableFuture<Map<UUID, T>> future : futures) {
+                results.putAll(future.join());
+            }
+
+            return results;
+        });
+    }
+
+    /**
+     * Gets the shards an island is stored on, the shard of its id and the shard of its owner
+     *
+     * @param ring   The ring to look the shards up in
+     * @param island The island
+     * @return The shards, one or two
+     */
+    static Set<SkyblockFetchingDatabase> getShards(ConsistentHashRing<SkyblockFetchingDatabase> ring, IslandData island) {
+        Set<SkyblockFetchingDatabase> shards = new LinkedHashSet<>(2);
+
+        shards.add(ring.get(island.getIslandId()));
+        shards.add(ring.get(island.getOwnerId()));
+
+        return shards;
+    }
+
+    /**
+     * Gets the ring the shards are placed on, this is null until the database is enabled
+     *
+     * @return The ring
+     */
+    public ConsistentHashRing<SkyblockFetchingDatabase> getRing() {
+        return ring;
+    }
+
+    /**
+     * Gets the ring from before the last shards were added
+     *
+     * @return The previous ring, or null if no rebalance is configured
+     */
+    public ConsistentHashRing<SkyblockFetchingDatabase> getPreviousRing() {
+        return previousRing;
+    }
+
+    /**
+     * Gets the shards, keyed by their name
+     *
+     * @return The shards
+     */
+    public Map<String, SkyblockFetchingDatabase> getShards() {
+        return shards;
+    }
+}
@@ -1,50 +1,131 @@
 package me.illusion.skyblockcore.common.database.fetching.sql;
 
+import com.google.common.collect.Lists;
+import java.nio.ByteBuffer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import me.illusion.skyblockcore.common.config.ReadOnlyConfigurationSection;
 import me.illusion.skyblockcore.common.data.IslandData;
+import me.illusion.skyblockcore.common.database.executor.DatabaseExecutor;
 import me.illusion.skyblockcore.common.database.fetching.SkyblockFetchingDatabase;
+import me.illusion.skyblockcore.common.database.fetching.sql.migration.SQLUUIDMigration;
+import me.illusion.skyblockcore.common.database.fetching.sql.pool.SQLConnectionPool;
+import me.illusion.skyblockcore.common.database.fetching.sql.replica.SQLReplicaRouter;
+import me.illusion.skyblockcore.common.database.fetching.sql.transaction.SQLGroupCommitter;
+import me.illusion.skyblockcore.common.database.fetching.sql.transaction.SQLWrite;
 
 /**
  * The abstract sql implementation of {@link SkyblockFetchingDatabase}. Certain methods are left abstract to allow for different implementations, as queries may
  * differ. For example, Postgres uses BYTEA for binary data, while MySQL uses BLOB.
+ * <p>
+ * UUIDs are stored as VARCHAR(36) by default. Setting "uuid-storage" to "binary" stores them in the database's binary UUID type instead, which more than halves
+ * the size of every index and skips string parsing on every query. Existing tables are migrated online when the database is enabled.
+ * <p>
+ * Network databases can also list read replicas under "replicas.hosts". Point and bulk reads are then spread over the replicas, while writes stay on the
+ * primary, see {@link SQLReplicaRouter}.
  */
 public abstract class AbstractSQLSkyblockDatabase implements SkyblockFetchingDatabase {
 
+    private static final int BULK_CHUNK_SIZE = 500; // Keeps IN lists and batches well below every driver's parameter limit
+
+    // IN lists are padded up to one of these sizes, so bulk reads share a handful of cached statements instead of preparing one per list size
+    private static final int[] IN_LIST_SIZES = {1, 8, 32, 128, BULK_CHUNK_SIZE};
+
     private final Set<CompletableFuture<?>> futures = ConcurrentHashMap.newKeySet();
-    private final AtomicReference<Connection> connection = new AtomicReference<>();
+    private final Map<SkyblockSQLQuery, String> catalog = new EnumMap<>(SkyblockSQLQuery.class);
+    private SQLConnectionPool pool;
+    private DatabaseExecutor executor;
+    private SQLGroupCommitter committer;
+    private SQLReplicaRouter router;
+    private boolean binaryUUIDs;
 
     @Override
     public CompletableFuture<Boolean> enable(ReadOnlyConfigurationSection properties) {
-        return associate(() -> enableDriver(properties)).thenCompose((__) -> createTables());
+        List<String> replicaHosts = isFileBased() ? Collections.emptyList() : getReplicaHosts(properties);
+
+        // More threads than connections would only have the extra threads waiting on the pools
+        int connections = properties.getInt("pool.max-size", getDefaultPoolSize(properties)) * (1 + replicaHosts.size());
+        executor = DatabaseExecutor.fromProperties(getName(), properties, connections);
+
+        catalog.putAll(getQueries()); // Built once, the queries never change
+
+        return associate(() -> {
+            if (!enableDriver(properties)) {
+                return false;
+            }
+
+            pool = createPool(this::createConnection, properties);
+
+            List<SQLConnectionPool> replicas = new ArrayList<>();
+
+            for (String address : replicaHosts) {
+                int separator = address.lastIndexOf(':');
+                String host = separator == -1 ? address : address.substring(0, separator);
+                int port = separator == -1 ? properties.getInt("port", 3306) : Integer.parseInt(address.substring(separator + 1));
+
+                replicas.add(createPool(() -> createConnection(host, port), properties)); // Replicas connect lazily, a down replica is skipped
+            }
+
+            router = new SQLReplicaRouter(
+                pool,
+                replicas,
+                properties.getInt("replicas.read-your-writes-ms", 2000),
+                properties.getInt("replicas.retry-ms", 5000)
+            );
+
+            committer = new SQLGroupCommitter(
+                getName(),
+                this::getConnection,
+                properties.getInt("group-commit.max-batch-size", 64),
+                properties.getInt("group-commit.max-wait-micros", 0)
+            );
+
+            // Databases without a binary UUID type keep storing strings
+            binaryUUIDs = "binary".equalsIgnoreCase(properties.getString("uuid-storage", "string")) && getBinaryUUIDType() != null;
+
+            if (binaryUUIDs) {
+                migrateUUIDs(properties.getInt("uuid-migration.batch-size", 1000));
+            } else if (getBinaryUUIDType() != null) {
+                checkNotMigrated();
+            }
+
+            return true;
+        }).thenCompose(enabled -> Boolean.TRUE.equals(enabled) ? createTables() : CompletableFuture.completedFuture(false));
     }
 
     @Override
     public CompletableFuture<UUID> fetchIslandId(UUID profileId) {
         return associate(() -> {
-            String query = getQueries().get(SkyblockSQLQuery.FETCH_ISLAND_ID);
+            String query = getQuery(SkyblockSQLQuery.FETCH_ISLAND_ID);
 
-            try (Connection connection = getConnection(); PreparedStatement statement = connection.prepareStatement(query)) {
-                statement.setString(1, profileId.toString());
+            try (Connection connection = getReadConnection(List.of(profileId)); PreparedStatement statement = connection.prepareStatement(query)) {
+                setUUID(statement, 1, profileId);
 
                 ResultSet set = statement.executeQuery();
 
                 if (set.next()) {
-                    return UUID.fromString(set.getString("island_id"));
+                    return getUUID(set, "island_id");
                 }
-            } catch (Exception ex) {
-                ex.printStackTrace();
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Failed to fetch the island id of " + profileId, ex);
             }
 
             return null;
@@ -54,10 +135,10 @@ public abstract class AbstractSQLSkyblockDatabase implements SkyblockFetchingDat
     @Override
     public CompletableFuture<IslandData> fetchIslandData(UUID islandId) {
         return associate(() -> {
-            String query = getQueries().get(SkyblockSQLQuery.FETCH_ISLAND_DATA);
+            String query = getQuery(SkyblockSQLQuery.FETCH_ISLAND_DATA);
 
-            try (Connection connection = getConnection(); PreparedStatement statement = connection.prepareStatement(query)) {
-                statement.setString(1, islandId.toString());
+            try (Connection connection = getReadConnection(List.of(islandId)); PreparedStatement statement = connection.prepareStatement(query)) {
+                setUUID(statement, 1, islandId);
 
                 ResultSet set = statement.executeQuery();
 
@@ -65,71 +146,58 @@ public abstract class AbstractSQLSkyblockDatabase implements SkyblockFetchingDat
                     return null;
                 }
 
-                String id = set.getString("island_id");
-                String ownerId = set.getString("owner_id");
-
-                return new IslandData(UUID.fromString(id), UUID.fromString(ownerId));
-            } catch (Exception ex) {
-                ex.printStackTrace();
+                return new IslandData(getUUID(set, "island_id"), getUUID(set, "owner_id"));
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Failed to fetch island " + islandId, ex);
             }
-
-            return null;
         });
     }
 
     @Override
     public CompletableFuture<Void> saveIslandData(IslandData data) {
-        return associate(() -> {
-            String query1 = getQueries().get(SkyblockSQLQuery.SAVE_ISLAND_DATA);
-            String query2 = getQueries().get(SkyblockSQLQuery.SAVE_ISLAND_ID);
+        return write(List.of(data.getIslandId(), data.getOwnerId()), connection -> {
+            String query1 = getQuery(SkyblockSQLQuery.SAVE_ISLAND_DATA);
+            String query2 = getQuery(SkyblockSQLQuery.SAVE_ISLAND_ID);
 
-            try (Connection connection = getConnection(); PreparedStatement statement = connection.prepareStatement(
-                query1); PreparedStatement statement2 = connection.prepareStatement(query2)) {
-                statement.setString(1, data.getIslandId().toString());
-                statement.setString(2, data.getOwnerId().toString());
+            try (PreparedStatement statement = connection.prepareStatement(query1); PreparedStatement statement2 = connection.prepareStatement(query2)) {
+                setUUID(statement, 1, data.getIslandId());
+                setUUID(statement, 2, data.getOwnerId());
 
-                statement2.setString(1, data.getOwnerId().toString());
-                statement2.setString(2, data.getIslandId().toString());
+                setUUID(statement2, 1, data.getOwnerId());
+                setUUID(statement2, 2, data.getIslandId());
 
                 statement.execute();
                 statement2.execute();
-            } catch (Exception ex) {
-                ex.printStackTrace();
             }
         });
     }
 
     @Override
     public CompletableFuture<Void> deleteIslandData(UUID islandId) {
-        return associate(() -> {
-            String query1 = getQueries().get(SkyblockSQLQuery.DELETE_ISLAND_DATA);
-            String query2 = getQueries().get(SkyblockSQLQuery.DELETE_ISLAND_ID);
+        return write(List.of(islandId), connection -> {
+            String query1 = getQuery(SkyblockSQLQuery.DELETE_ISLAND_DATA);
+            String query2 = getQuery(SkyblockSQLQuery.DELETE_ISLAND_ID);
 
-            try (Connection connection = getConnection(); PreparedStatement statement = connection.prepareStatement(
-                query1); PreparedStatement statement2 = connection.prepareStatement(query2)) {
-                statement.setString(1, islandId.toString());
-                statement2.setString(1, islandId.toString());
+            try (PreparedStatement statement = connection.prepareStatement(query1); PreparedStatement statement2 = connection.prepareStatement(query2)) {
+                setUUID(statement, 1, islandId);
+                setUUID(statement2, 1, islandId);
 
                 statement.execute();
                 statement2.execute();
-            } catch (Exception ex) {
-                ex.printStackTrace();
             }
         });
     }
 
     @Override
     public CompletableFuture<Void> setProfileId(UUID playerId, UUID profileId) {
-        return associate(() -> {
-            String query = getQueries().get(SkyblockSQLQuery.SAVE_PLAYER_PROFILE);
+        return write(List.of(playerId), connection -> {
+            String query = getQuery(SkyblockSQLQuery.SAVE_PLAYER_PROFILE);
 
-            try (Connection connection = getConnection(); PreparedStatement statement = connection.prepareStatement(query)) {
-                statement.setString(1, profileId.toString());
-                statement.setString(2, playerId.toString());
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                setUUID(statement, 1, playerId);
+                setUUID(statement, 2, profileId);
 
                 statement.execute();
-            } catch (Exception ex) {
-                ex.printStackTrace();
             }
         });
     }
@@ -137,49 +205,422 @@ public abstract class AbstractSQLSkyblockDatabase implements SkyblockFetchingDat
     @Override
     public CompletableFuture<UUID> getProfileId(UUID playerId) {
         return associate(() -> {
-            String query = getQueries().get(SkyblockSQLQuery.FETCH_PLAYER_PROFILE);
+            String query = getQuery(SkyblockSQLQuery.FETCH_PLAYER_PROFILE);
 
-            try (Connection connection = getConnection(); PreparedStatement statement = connection.prepareStatement(query)) {
-                statement.setString(1, playerId.toString());
+            try (Connection connection = getReadConnection(List.of(playerId)); PreparedStatement statement = connection.prepareStatement(query)) {
+                setUUID(statement, 1, playerId);
 
                 ResultSet set = statement.executeQuery();
 
                 if (set.next()) {
-                    return UUID.fromString(set.getString("profile_id"));
+                    return getUUID(set, "profile_id");
                 }
-            } catch (Exception ex) {
-                ex.printStackTrace();
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Failed to fetch the profile id of " + playerId, ex);
             }
 
             return null;
         });
     }
 
+    @Override
+    public CompletableFuture<IslandData> fetchPlayerIsland(UUID profileId) {
+        return associate(() -> {
+            String query = getQuery(SkyblockSQLQuery.FETCH_PLAYER_ISLAND);
+
+            try (Connection connection = getReadConnection(List.of(profileId)); PreparedStatement statement = connection.prepareStatement(query)) {
+                setUUID(statement, 1, profileId);
+
+                ResultSet set = statement.executeQuery();
+
+                if (!(set.next())) {
+                    return null;
+                }
+
+                return new IslandData(getUUID(set, "island_id"), getUUID(set, "owner_id"));
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Failed to fetch the island of " + profileId, ex);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, IslandData>> fetchIslandData(Collection<UUID> islandIds) {
+        return associate(() -> {
+            Map<UUID, IslandData> results = new HashMap<>();
+            String query = getQuery(SkyblockSQLQuery.FETCH_ISLAND_DATA_BULK);
+
+            try (Connection connection = getReadConnection(islandIds)) {
+                for (List<UUID> chunk : partition(islandIds)) {
+                    try (PreparedStatement statement = connection.prepareStatement(expandIds(query, chunk.size()))) {
+                        bindAll(statement, chunk);
+
+                        ResultSet set = statement.executeQuery();
+
+                        while (set.next()) {
+                            IslandData data = new IslandData(getUUID(set, "island_id"), getUUID(set, "owner_id"));
+                            results.put(data.getIslandId(), data);
+                        }
+                    }
+                }
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Failed to fetch " + islandIds.size() + " islands", ex);
+            }
+
+            return results;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> saveIslandData(Collection<IslandData> data) {
+        List<UUID> keys = new ArrayList<>(data.size() * 2);
+
+        for (IslandData islandData : data) {
+            keys.add(islandData.getIslandId());
+            keys.add(islandData.getOwnerId());
+        }
+
+        return write(keys, connection -> {
+            String query1 = getQuery(SkyblockSQLQuery.SAVE_ISLAND_DATA);
+            String query2 = getQuery(SkyblockSQLQuery.SAVE_ISLAND_ID);
+
+            try (PreparedStatement statement = connection.prepareStatement(query1); PreparedStatement statement2 = connection.prepareStatement(query2)) {
+                int batched = 0;
+
+                for (IslandData islandData : data) {
+                    setUUID(statement, 1, islandData.getIslandId());
+                    setUUID(statement, 2, islandData.getOwnerId());
+                    statement.addBatch();
+
+                    setUUID(statement2, 1, islandData.getOwnerId());
+                    setUUID(statement2, 2, islandData.getIslandId());
+                    statement2.addBatch();
+
+                    if (++batched % BULK_CHUNK_SIZE == 0) { // Keeps the driver from buffering the whole collection
+                        statement.executeBatch();
+                        statement2.executeBatch();
+                    }
+                }
+
+                statement.executeBatch();
+                statement2.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, UUID>> getProfileIds(Collection<UUID> playerIds) {
+        return associate(() -> {
+            Map<UUID, UUID> results = new HashMap<>();
+            String query = getQuery(SkyblockSQLQuery.FETCH_PLAYER_PROFILES_BULK);
+
+            try (Connection connection = getReadConnection(playerIds)) {
+                for (List<UUID> chunk : partition(playerIds)) {
+                    try (PreparedStatement statement = connection.prepareStatement(expandIds(query, chunk.size()))) {
+                        bindAll(statement, chunk);
+
+                        ResultSet set = statement.executeQuery();
+
+                        while (set.next()) {
+                            results.put(getUUID(set, "player_id"), getUUID(set, "profile_id"));
+                        }
+                    }
+                }
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Failed to fetch " + playerIds.size() + " profile ids", ex);
+            }
+
+            return results;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> forEachIsland(int batchSize, Consumer<List<IslandData>> consumer) {
+        return associate(() -> {
+            String query = getQuery(SkyblockSQLQuery.FETCH_ALL_ISLAND_DATA);
+            long visited = 0;
+
+            // A scan has no keys, so it always goes to a replica if there is one
+            try (Connection connection = getReadConnection(Collections.emptyList())) {
+                connection.setAutoCommit(false); // Postgres only honours the fetch size inside a transaction, the pool rolls it back on return
+
+                // Not the single argument prepareStatement, so the fetch size never leaks into a cached statement
+                try (PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(batchSize);
+
+                    ResultSet set = statement.executeQuery();
+                    List<IslandData> batch = new ArrayList<>(batchSize);
+
+                    while (set.next()) {
+                        batch.add(new IslandData(getUUID(set, "island_id"), getUUID(set, "owner_id")));
+
+                        if (batch.size() >= batchSize) {
+                            consumer.accept(batch);
+                            visited += batch.size();
+                            batch = new ArrayList<>(batchSize);
+                        }
+                    }
+
+                    if (!batch.isEmpty()) {
+                        consumer.accept(batch);
+                        visited += batch.size();
+                    }
+                }
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Failed to scan the islands after " + visited + " islands", ex);
+            }
+
+            return visited;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> forEachProfile(int batchSize, Consumer<Map<UUID, UUID>> consumer) {
+        return associate(() -> {
+            String query = getQuery(SkyblockSQLQuery.FETCH_ALL_PLAYER_PROFILES);
+            long visited = 0;
+
+            try (Connection connection = getReadConnection(Collections.emptyList())) {
+                connection.setAutoCommit(false); // See forEachIsland
+
+                try (PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(batchSize);
+
+                    ResultSet set = statement.executeQuery();
+                    Map<UUID, UUID> batch = new HashMap<>();
+
+                    while (set.next()) {
+                        batch.put(getUUID(set, "player_id"), getUUID(set, "profile_id"));
+
+                        if (batch.size() >= batchSize) {
+                            consumer.accept(batch);
+                            visited += batch.size();
+                            batch = new HashMap<>();
+                        }
+                    }
+
+                    if (!batch.isEmpty()) {
+                        consumer.accept(batch);
+                        visited += batch.size();
+                    }
+                }
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Failed to scan the profile ids after " + visited + " profiles", ex);
+            }
+
+            return visited;
+        });
+    }
+
     @Override
     public CompletableFuture<Void> flush() {
         return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
     }
 
+    @Override
+    public CompletableFuture<Void> close(long deadline) {
+        // Called once the database is flushed, so the committer and the executor only have stragglers left, which still need their connections
+        if (committer != null) {
+            committer.shutdown(Math.max(0, deadline - System.currentTimeMillis()));
+        }
+
+        if (executor != null) {
+            executor.shutdown(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        }
+
+        if (router != null) {
+            router.getReplicas().forEach(SQLConnectionPool::close);
+        }
+
+        if (pool != null) {
+            pool.close();
+        }
+
+        return CompletableFuture.completedFuture(null);
+    }
+
     private CompletableFuture<Boolean> createTables() {
         return associate(() -> {
-            String query = getQueries().get(SkyblockSQLQuery.CREATE_ISLAND_DATA_TABLE);
-            String query2 = getQueries().get(SkyblockSQLQuery.CREATE_ISLAND_ID_TABLE);
+            String uuidType = binaryUUIDs ? getBinaryUUIDType() : "VARCHAR(36)";
 
-            try (Connection connection = getConnection(); PreparedStatement statement = connection.prepareStatement(
-                query); PreparedStatement statement2 = connection.prepareStatement(query2)) {
-                statement.execute();
-                statement2.execute();
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                return false;
+            List<SkyblockSQLQuery> tables = List.of(
+                SkyblockSQLQuery.CREATE_ISLAND_DATA_TABLE,
+                SkyblockSQLQuery.CREATE_ISLAND_ID_TABLE,
+                SkyblockSQLQuery.CREATE_PROFILE_TABLE
+            );
+
+            try (Connection connection = getConnection(); Statement statement = connection.createStatement()) {
+                for (SkyblockSQLQuery table : tables) {
+                    statement.execute(getQuery(table).replace("{uuid}", uuidType));
+                }
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Failed to create the tables", ex);
             }
 
             return true;
         });
     }
 
+    private void migrateUUIDs(int batchSize) {
+        SQLUUIDMigration migration = createUUIDMigration(batchSize);
+
+        try (Connection connection = getConnection()) {
+            for (String table : getTables()) {
+                migration.migrate(connection, table);
+            }
+        } catch (SQLException ex) { // The migration resumes on the next start, and the old tables are still intact
+            throw new IllegalStateException("Failed to migrate the UUID columns to " + getBinaryUUIDType(), ex);
+        }
+    }
+
+    // Switching back to string storage after migrating would bind strings into binary columns, so refuse to start instead
+    private void checkNotMigrated() {
+        try (Connection connection = getConnection()) {
+            for (String table : getTables()) {
+                if (SQLUUIDMigration.isMigrated(connection, table)) {
+                    throw new IllegalStateException("Table " + table + " stores UUIDs as " + getBinaryUUIDType() + ", but uuid-storage is set to string. "
+                        + "Binary tables can't be migrated back, set uuid-storage to binary");
+                }
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Failed to check the UUID column types", ex);
+        }
+    }
+
+    private SQLConnectionPool createPool(Supplier<Connection> factory, ReadOnlyConfigurationSection properties) {
+        return new SQLConnectionPool(
+            factory,
+            properties.getInt("pool.max-size", getDefaultPoolSize(properties)),
+            properties.getInt("pool.connection-timeout-ms", 5000),
+            properties.getInt("pool.idle-validation-ms", 30000),
+            properties.getInt("pool.max-lifetime-ms", 1800000),
+            properties.getInt("pool.statement-cache-size", 64)
+        );
+    }
+
+    private static List<String> getReplicaHosts(ReadOnlyConfigurationSection properties) {
+        List<?> hosts = properties.get("replicas.hosts", List.class);
+
+        if (hosts == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> addresses = new ArrayList<>();
+
+        for (Object host : hosts) {
+            addresses.add(String.valueOf(host).trim());
+        }
+
+        return addresses;
+    }
+
+    /**
+     * Binds a UUID to a statement, using the configured storage type
+     *
+     * @param statement The statement
+     * @param index     The parameter index
+     * @param uuid      The UUID
+     * @throws SQLException If the parameter could not be set
+     */
+    protected void setUUID(PreparedStatement statement, int index, UUID uuid) throws SQLException {
+        if (binaryUUIDs) {
+            setBinaryUUID(statement, index, uuid);
+        } else {
+            statement.setString(index, uuid.toString());
+        }
+    }
+
+    /**
+     * Reads a UUID from a result set, using the configured storage type
+     *
+     * @param set    The result set
+     * @param column The column
+     * @return The UUID, or null if the column is null
+     * @throws SQLException If the column could not be read
+     */
+    protected UUID getUUID(ResultSet set, String column) throws SQLException {
+        if (binaryUUIDs) {
+            return getBinaryUUID(set, column);
+        }
+
+        String value = set.getString(column);
+        return value == null ? null : UUID.fromString(value);
+    }
+
+    /**
+     * Binds a UUID in binary form, as 16 big-endian bytes by default
+     *
+     * @param statement The statement
+     * @param index     The parameter index
+     * @param uuid      The UUID
+     * @throws SQLException If the parameter could not be set
+     */
+    protected void setBinaryUUID(PreparedStatement statement, int index, UUID uuid) throws SQLException {
+        statement.setBytes(index, toBytes(uuid));
+    }
+
+    /**
+     * Reads a UUID in binary form, as 16 big-endian bytes by default
+     *
+     * @param set    The result set
+     * @param column The column
+     * @return The UUID, or null if the column is null
+     * @throws SQLException If the column could not be read
+     */
+    protected UUID getBinaryUUID(ResultSet set, String column) throws SQLException {
+        byte[] bytes = set.getBytes(column);
+        return bytes == null ? null : fromBytes(bytes);
+    }
+
     /**
-     * Gets the queries for this database. The key is the query type, the value is the query itself.
+     * Checks if this database stores UUIDs in binary form
+     *
+     * @return If UUIDs are stored in binary form
+     */
+    public boolean isBinaryUUIDs() {
+        return binaryUUIDs;
+    }
+
+    /**
+     * Gets the column type used for binary UUIDs, the CREATE queries use "{uuid}" as a placeholder for the UUID column type.
+     *
+     * @return The column type, or null if this database has no binary UUID support
+     */
+    protected String getBinaryUUIDType() {
+        return null;
+    }
+
+    /**
+     * Creates the migration which converts string UUID tables to binary ones. This is only called if {@link #getBinaryUUIDType()} is not null.
+     *
+     * @param batchSize The amount of rows to copy at once
+     * @return The migration
+     */
+    protected SQLUUIDMigration createUUIDMigration(int batchSize) {
+        throw new UnsupportedOperationException(getName() + " does not support binary UUIDs");
+    }
+
+    /**
+     * Gets the names of the tables this database uses, in the order they should be migrated
+     *
+     * @return The table names
+     */
+    protected List<String> getTables() {
+        return List.of("skyblock_data", "skyblock_ids", "skyblock_profiles");
+    }
+
+    /**
+     * Gets a query from the query catalog, which is built once when the database is enabled
+     *
+     * @param query The query type
+     * @return The query
+     */
+    protected String getQuery(SkyblockSQLQuery query) {
+        return catalog.get(query);
+    }
+
+    /**
+     * Gets the queries for this database. The key is the query type, the value is the query itself. This is only called once, when the database is enabled.
      *
      * @return The queries for this database.
      */
@@ -192,6 +633,17 @@ public abstract class AbstractSQLSkyblockDatabase implements SkyblockFetchingDat
      */
     protected abstract Connection createConnection();
 
+    /**
+     * Creates a connection to a read replica. The replica shares the primary's database name and credentials.
+     *
+     * @param host The replica's host
+     * @param port The replica's port
+     * @return The connection, or null if the replica can't be reached
+     */
+    protected Connection createConnection(String host, int port) {
+        return null; // Databases without replica support never get here, the pool treats null as unreachable
+    }
+
     /**
      * Enables the driver for this database.
      *
@@ -201,50 +653,170 @@ public abstract class AbstractSQLSkyblockDatabase implements SkyblockFetchingDat
     protected abstract boolean enableDriver(ReadOnlyConfigurationSection properties);
 
     /**
-     * Gets the connection to the database. If the connection is invalid or null, it will create a new one.
+     * Gets the default size of the connection pool, used when the properties don't specify one. This is called before the driver is enabled, so it must only
+     * depend on the properties.
+     *
+     * @param properties The properties for this database
+     * @return The default pool size
+     */
+    protected int getDefaultPoolSize(ReadOnlyConfigurationSection properties) {
+        return 10;
+    }
+
+    /**
+     * Borrows a connection from the pool. Closing the connection returns it to the pool.
      *
      * @return The connection to the database.
+     * @throws SQLException If no connection became available in time
      */
-    protected Connection getConnection() {
-        Connection connection = this.connection.get();
+    protected Connection getConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    /**
+     * Borrows a connection for a read. The connection comes from a replica, unless one of the keys was written recently or there are no usable replicas.
+     *
+     * @param keys The keys the read touches
+     * @return The connection to the database.
+     * @throws SQLException If no connection became available in time
+     */
+    protected Connection getReadConnection(Collection<UUID> keys) throws SQLException {
+        return router.getReadConnection(keys);
+    }
+
+    /**
+     * Gets the connection pool, this is null until the database is enabled
+     *
+     * @return The connection pool
+     */
+    public SQLConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Gets the executor which runs this database's queries, this is null until the database is enabled
+     *
+     * @return The executor
+     */
+    public DatabaseExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Gets the group committer which runs this database's writes, this is null until the database is enabled
+     *
+     * @return The committer
+     */
+    public SQLGroupCommitter getCommitter() {
+        return committer;
+    }
+
+    /**
+     * Gets the router which spreads reads over the replicas, this is null until the database is enabled
+     *
+     * @return The router
+     */
+    public SQLReplicaRouter getRouter() {
+        return router;
+    }
+
+    /**
+     * Runs a write in a transaction, possibly sharing it with other writes. The written keys are pinned to the primary until shortly after the commit.
+     *
+     * @param keys  The keys the write touches
+     * @param write The write
+     * @return A future which completes once the write is committed
+     */
+    protected CompletableFuture<Void> write(Collection<UUID> keys, SQLWrite write) {
+        router.pin(keys);
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
 
-        try {
-            if (connection == null || !connection.isValid(5)) {
-                connection = createConnection();
+        committer.submit(write).whenComplete((ignored, throwable) -> {
+            if (throwable == null) {
+                router.pin(keys); // The replicas only start catching up once the write is committed
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
 
-        return connection;
+            Runnable callback = () -> {
+                if (throwable != null) {
+                    future.completeExceptionally(throwable);
+                } else {
+                    future.complete(null);
+                }
+            };
+
+            // Callbacks must not run on the committer thread, or a slow one would hold up every other write. A saturated executor must not turn a committed
+            // write into a failed one though, so the callbacks run here as a last resort
+            try {
+                executor.execute(callback);
+            } catch (RejectedExecutionException ex) {
+                callback.run();
+            }
+        });
+
+        future.whenComplete((ignored, throwable) -> futures.remove(future));
+
+        futures.add(future);
+        return future;
     }
 
     private <T> CompletableFuture<T> associate(Supplier<T> supplier) {
-        CompletableFuture<T> future = CompletableFuture.supplyAsync(supplier);
+        CompletableFuture<T> future = executor.supply(supplier);
 
-        future.thenRun(() -> futures.remove(future));
-        future.exceptionally(throwable -> {
-            throwable.printStackTrace();
-            return null;
-        });
+        future.whenComplete((ignored, throwable) -> futures.remove(future));
 
         futures.add(future);
         return future;
     }
 
     private CompletableFuture<Void> associate(Runnable runnable) {
-        CompletableFuture<Void> future = CompletableFuture.runAsync(runnable);
+        CompletableFuture<Void> future = executor.run(runnable);
 
-        future.thenRun(() -> futures.remove(future));
-        future.exceptionally(throwable -> {
-            throwable.printStackTrace();
-            return null;
-        });
+        future.whenComplete((ignored, throwable) -> futures.remove(future));
 
         futures.add(future);
         return future;
     }
 
+    private void bindAll(PreparedStatement statement, List<UUID> ids) throws SQLException {
+        int size = getInListSize(ids.size());
+
+        for (int index = 0; index < size; index++) {
+            setUUID(statement, index + 1, ids.get(Math.min(index, ids.size() - 1))); // The padding repeats the last id, which matches the same row
+        }
+    }
+
+    private static int getInListSize(int count) {
+        for (int size : IN_LIST_SIZES) {
+            if (count <= size) {
+                return size;
+            }
+        }
+
+        return count;
+    }
+
+    private static List<List<UUID>> partition(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return Lists.partition(new ArrayList<>(ids), BULK_CHUNK_SIZE);
+    }
+
+    private static String expandIds(String query, int count) {
+        return query.replace("{ids}", String.join(", ", Collections.nCopies(getInListSize(count), "?")));
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+    }
+
+    private static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
     protected Map<SkyblockSQLQuery, String> of(Object... objects) {
         Map<SkyblockSQLQuery, String> map = new HashMap<>();
 
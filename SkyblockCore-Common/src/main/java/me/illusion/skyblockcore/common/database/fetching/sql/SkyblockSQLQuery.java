@@ -7,6 +7,9 @@ public enum SkyblockSQLQuery {
 
     FETCH_ISLAND_ID, // Fetch an island id from a player's uuid
     FETCH_ISLAND_DATA, // Fetch all the island data from an island id
+    FETCH_PLAYER_ISLAND, // Fetch all the island data from a player's uuid, joining the island id and island data tables
+    FETCH_ISLAND_DATA_BULK, // Fetch the island data of many islands, "{ids}" is replaced with one parameter per island id
+    FETCH_ALL_ISLAND_DATA, // Fetch the island data of every island, read through a cursor
 
     DELETE_ISLAND_DATA, // Deletes all the island data associated with an island id
     DELETE_ISLAND_ID, // Deletes all the island id associated with a player's uuid
@@ -15,6 +18,8 @@ public enum SkyblockSQLQuery {
     SAVE_ISLAND_ID, // Saves all the island id associated with a player's uuid
 
     FETCH_PLAYER_PROFILE, // Fetches a player's profile id
+    FETCH_PLAYER_PROFILES_BULK, // Fetches the profile ids of many players as player_id and profile_id, "{ids}" is replaced with one parameter per player id
+    FETCH_ALL_PLAYER_PROFILES, // Fetches every profile id as player_id and profile_id, read through a cursor
     SAVE_PLAYER_PROFILE, // Saves a player's profile id
 
     CREATE_ISLAND_DATA_TABLE, // Creates the island data table
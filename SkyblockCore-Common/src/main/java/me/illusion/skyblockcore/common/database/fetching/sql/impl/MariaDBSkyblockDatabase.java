@@ -7,6 +7,8 @@ import java.util.Map;
 import me.illusion.skyblockcore.common.config.ReadOnlyConfigurationSection;
 import me.illusion.skyblockcore.common.database.fetching.sql.AbstractSQLSkyblockDatabase;
 import me.illusion.skyblockcore.common.database.fetching.sql.SkyblockSQLQuery;
+import me.illusion.skyblockcore.common.database.fetching.sql.migration.MySQLUUIDMigration;
+import me.illusion.skyblockcore.common.database.fetching.sql.migration.SQLUUIDMigration;
 
 /**
  * The mariadb implementation of {@link AbstractSQLSkyblockDatabase}
@@ -15,15 +17,21 @@ public class MariaDBSkyblockDatabase extends AbstractSQLSkyblockDatabase {
 
     private static final String FETCH_ISLAND_ID = "SELECT island_id FROM skyblock_ids WHERE owner_id = ?";
     private static final String FETCH_ISLAND_DATA = "SELECT * FROM skyblock_data WHERE island_id = ?";
-    private static final String DELETE_ISLAND_DATA = "DELETE FROM skyblock_data WHERE island_id"; // Remove island data with island id
-    private static final String DELETE_ISLAND_ID = "DELETE FROM skyblock_ids WHERE island_id"; // Remove island id with island id
-    private static final String SAVE_ISLAND_DATA = "INSERT INTO skyblock_data (island_id, owner_id) VALUES (?, ?) ON DUPLICATE KEY UPDATE owner_id = ?";
-    private static final String SAVE_ISLAND_ID = "INSERT INTO skyblock_ids (owner_id, island_id) VALUES (?, ?) ON DUPLICATE KEY UPDATE island_id = ?";
+    private static final String FETCH_PLAYER_ISLAND = "SELECT islands.island_id, islands.owner_id FROM skyblock_ids ids"
+        + " JOIN skyblock_data islands ON islands.island_id = ids.island_id WHERE ids.owner_id = ?";
+    private static final String FETCH_ISLAND_DATA_BULK = "SELECT * FROM skyblock_data WHERE island_id IN ({ids})";
+    private static final String FETCH_ALL_ISLAND_DATA = "SELECT island_id, owner_id FROM skyblock_data";
+    private static final String DELETE_ISLAND_DATA = "DELETE FROM skyblock_data WHERE island_id = ?"; // Remove island data with island id
+    private static final String DELETE_ISLAND_ID = "DELETE FROM skyblock_ids WHERE island_id = ?"; // Remove island id with island id
+    private static final String SAVE_ISLAND_DATA = "INSERT INTO skyblock_data (island_id, owner_id) VALUES (?, ?) ON DUPLICATE KEY UPDATE owner_id = VALUES(owner_id)";
+    private static final String SAVE_ISLAND_ID = "INSERT INTO skyblock_ids (owner_id, island_id) VALUES (?, ?) ON DUPLICATE KEY UPDATE island_id = VALUES(island_id)";
     private static final String FETCH_PROFILE_ID = "SELECT profile_id FROM skyblock_profiles WHERE owner_id = ?";
-    private static final String SAVE_PROFILE_ID = "INSERT INTO skyblock_profiles (owner_id, profile_id) VALUES (?, ?) ON DUPLICATE KEY UPDATE profile_id = ?";
-    private static final String CREATE_ISLAND_DATA_TABLE = "CREATE TABLE IF NOT EXISTS skyblock_data (island_id VARCHAR(36) PRIMARY KEY, owner_id VARCHAR(36))";
-    private static final String CREATE_ISLAND_ID_TABLE = "CREATE TABLE IF NOT EXISTS skyblock_ids (owner_id VARCHAR(36) PRIMARY KEY, island_id VARCHAR(36))";
-    private static final String CREATE_PROFILE_TABLE = "CREATE TABLE IF NOT EXISTS skyblock_profiles (profile_id VARCHAR(36) PRIMARY KEY, owner_id VARCHAR(36))";
+    private static final String FETCH_PROFILE_IDS_BULK = "SELECT owner_id AS player_id, profile_id FROM skyblock_profiles WHERE owner_id IN ({ids})";
+    private static final String FETCH_ALL_PROFILE_IDS = "SELECT owner_id AS player_id, profile_id FROM skyblock_profiles";
+    private static final String SAVE_PROFILE_ID = "INSERT INTO skyblock_profiles (owner_id, profile_id) VALUES (?, ?) ON DUPLICATE KEY UPDATE profile_id = VALUES(profile_id)";
+    private static final String CREATE_ISLAND_DATA_TABLE = "CREATE TABLE IF NOT EXISTS skyblock_data (island_id {uuid} PRIMARY KEY, owner_id {uuid})";
+    private static final String CREATE_ISLAND_ID_TABLE = "CREATE TABLE IF NOT EXISTS skyblock_ids (owner_id {uuid} PRIMARY KEY, island_id {uuid})";
+    private static final String CREATE_PROFILE_TABLE = "CREATE TABLE IF NOT EXISTS skyblock_profiles (owner_id {uuid} PRIMARY KEY, profile_id {uuid})";
 
     private String host;
     private int port;
@@ -36,11 +44,16 @@ public class MariaDBSkyblockDatabase extends AbstractSQLSkyblockDatabase {
         return of(
             SkyblockSQLQuery.FETCH_ISLAND_ID, FETCH_ISLAND_ID,
             SkyblockSQLQuery.FETCH_ISLAND_DATA, FETCH_ISLAND_DATA,
+            SkyblockSQLQuery.FETCH_PLAYER_ISLAND, FETCH_PLAYER_ISLAND,
+            SkyblockSQLQuery.FETCH_ISLAND_DATA_BULK, FETCH_ISLAND_DATA_BULK,
+            SkyblockSQLQuery.FETCH_ALL_ISLAND_DATA, FETCH_ALL_ISLAND_DATA,
             SkyblockSQLQuery.DELETE_ISLAND_DATA, DELETE_ISLAND_DATA,
             SkyblockSQLQuery.DELETE_ISLAND_ID, DELETE_ISLAND_ID,
             SkyblockSQLQuery.SAVE_ISLAND_DATA, SAVE_ISLAND_DATA,
             SkyblockSQLQuery.SAVE_ISLAND_ID, SAVE_ISLAND_ID,
             SkyblockSQLQuery.FETCH_PLAYER_PROFILE, FETCH_PROFILE_ID,
+            SkyblockSQLQuery.FETCH_PLAYER_PROFILES_BULK, FETCH_PROFILE_IDS_BULK,
+            SkyblockSQLQuery.FETCH_ALL_PLAYER_PROFILES, FETCH_ALL_PROFILE_IDS,
             SkyblockSQLQuery.SAVE_PLAYER_PROFILE, SAVE_PROFILE_ID,
             SkyblockSQLQuery.CREATE_ISLAND_DATA_TABLE, CREATE_ISLAND_DATA_TABLE,
             SkyblockSQLQuery.CREATE_ISLAND_ID_TABLE, CREATE_ISLAND_ID_TABLE,
@@ -50,9 +63,14 @@ public class MariaDBSkyblockDatabase extends AbstractSQLSkyblockDatabase {
 
     @Override
     protected Connection createConnection() {
+        return createConnection(host, port);
+    }
+
+    @Override
+    protected Connection createConnection(String host, int port) {
         try {
             Class.forName("org.mariadb.jdbc.Driver");
-            return DriverManager.getConnection("jdbc:mariadb://" + host + ":" + port + "/" + database, username, password);
+            return DriverManager.getConnection("jdbc:mariadb://" + host + ":" + port + "/" + database + "?useServerPrepStmts=true", username, password);
         } catch (Exception expected) { // The driver will throw an exception if it fails to connect
             return null;
         }
@@ -73,6 +91,16 @@ public class MariaDBSkyblockDatabase extends AbstractSQLSkyblockDatabase {
         }
     }
 
+    @Override
+    protected String getBinaryUUIDType() {
+        return "BINARY(16)";
+    }
+
+    @Override
+    protected SQLUUIDMigration createUUIDMigration(int batchSize) {
+        return new MySQLUUIDMigration(batchSize);
+    }
+
     @Override
     public String getName() {
         return "mariadb";
@@ -2,11 +2,17 @@ package me.illusion.skyblockcore.common.database.fetching.sql.impl;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import me.illusion.skyblockcore.common.config.ReadOnlyConfigurationSection;
 import me.illusion.skyblockcore.common.database.fetching.sql.AbstractSQLSkyblockDatabase;
 import me.illusion.skyblockcore.common.database.fetching.sql.SkyblockSQLQuery;
+import me.illusion.skyblockcore.common.database.fetching.sql.migration.PostgresUUIDMigration;
+import me.illusion.skyblockcore.common.database.fetching.sql.migration.SQLUUIDMigration;
 
 /**
  * The postgres implementation of {@link AbstractSQLSkyblockDatabase}
@@ -15,15 +21,21 @@ public class PostgresSkyblockDatabase extends AbstractSQLSkyblockDatabase {
 
     private static final String FETCH_ISLAND_ID = "SELECT island_id FROM island_id WHERE owner_id = ?";
     private static final String FETCH_ISLAND_DATA = "SELECT * FROM island_data WHERE island_id = ?";
+    private static final String FETCH_PLAYER_ISLAND = "SELECT islands.island_id, islands.owner_id FROM island_id ids"
+        + " JOIN island_data islands ON islands.island_id = ids.island_id WHERE ids.owner_id = ?";
+    private static final String FETCH_ISLAND_DATA_BULK = "SELECT * FROM island_data WHERE island_id IN ({ids})";
+    private static final String FETCH_ALL_ISLAND_DATA = "SELECT island_id, owner_id FROM island_data";
     private static final String DELETE_ISLAND_DATA = "DELETE FROM island_data WHERE island_id = ?";
     private static final String DELETE_ISLAND_ID = "DELETE FROM island_id WHERE island_id = ?";
-    private static final String SAVE_ISLAND_DATA = "INSERT INTO island_data (island_id, owner_id) VALUES (?, ?) ON CONFLICT (island_id) DO UPDATE SET owner_id = ?";
-    private static final String SAVE_ISLAND_ID = "INSERT INTO island_id (owner_id, island_id) VALUES (?, ?) ON CONFLICT (owner_id) DO UPDATE SET island_id = ?";
+    private static final String SAVE_ISLAND_DATA = "INSERT INTO island_data (island_id, owner_id) VALUES (?, ?) ON CONFLICT (island_id) DO UPDATE SET owner_id = EXCLUDED.owner_id";
+    private static final String SAVE_ISLAND_ID = "INSERT INTO island_id (owner_id, island_id) VALUES (?, ?) ON CONFLICT (owner_id) DO UPDATE SET island_id = EXCLUDED.island_id";
     private static final String FETCH_PLAYER_PROFILE = "SELECT profile_id FROM profile WHERE player_id = ?";
-    private static final String SAVE_PLAYER_PROFILE = "INSERT INTO profile (player_id, profile_id) VALUES (?, ?) ON CONFLICT (player_id) DO UPDATE SET profile_id = ?";
-    private static final String CREATE_ISLAND_DATA_TABLE = "CREATE TABLE IF NOT EXISTS island_data (island_id VARCHAR(36) PRIMARY KEY, owner_id VARCHAR(36))";
-    private static final String CREATE_ISLAND_ID_TABLE = "CREATE TABLE IF NOT EXISTS island_id (owner_id VARCHAR(36) PRIMARY KEY, island_id VARCHAR(36))";
-    private static final String CREATE_PROFILE_TABLE = "CREATE TABLE IF NOT EXISTS profile (owner_id VARCHAR(36) PRIMARY KEY, profile_id VARCHAR(36))";
+    private static final String FETCH_PLAYER_PROFILES_BULK = "SELECT player_id, profile_id FROM profile WHERE player_id IN ({ids})";
+    private static final String FETCH_ALL_PLAYER_PROFILES = "SELECT player_id, profile_id FROM profile";
+    private static final String SAVE_PLAYER_PROFILE = "INSERT INTO profile (player_id, profile_id) VALUES (?, ?) ON CONFLICT (player_id) DO UPDATE SET profile_id = EXCLUDED.profile_id";
+    private static final String CREATE_ISLAND_DATA_TABLE = "CREATE TABLE IF NOT EXISTS island_data (island_id {uuid} PRIMARY KEY, owner_id {uuid})";
+    private static final String CREATE_ISLAND_ID_TABLE = "CREATE TABLE IF NOT EXISTS island_id (owner_id {uuid} PRIMARY KEY, island_id {uuid})";
+    private static final String CREATE_PROFILE_TABLE = "CREATE TABLE IF NOT EXISTS profile (player_id {uuid} PRIMARY KEY, profile_id {uuid})";
 
     private String host;
     private int port;
@@ -36,11 +48,16 @@ public class PostgresSkyblockDatabase extends AbstractSQLSkyblockDatabase {
         return of(
             SkyblockSQLQuery.FETCH_ISLAND_ID, FETCH_ISLAND_ID,
             SkyblockSQLQuery.FETCH_ISLAND_DATA, FETCH_ISLAND_DATA,
+            SkyblockSQLQuery.FETCH_PLAYER_ISLAND, FETCH_PLAYER_ISLAND,
+            SkyblockSQLQuery.FETCH_ISLAND_DATA_BULK, FETCH_ISLAND_DATA_BULK,
+            SkyblockSQLQuery.FETCH_ALL_ISLAND_DATA, FETCH_ALL_ISLAND_DATA,
             SkyblockSQLQuery.DELETE_ISLAND_DATA, DELETE_ISLAND_DATA,
             SkyblockSQLQuery.DELETE_ISLAND_ID, DELETE_ISLAND_ID,
             SkyblockSQLQuery.SAVE_ISLAND_DATA, SAVE_ISLAND_DATA,
             SkyblockSQLQuery.SAVE_ISLAND_ID, SAVE_ISLAND_ID,
             SkyblockSQLQuery.FETCH_PLAYER_PROFILE, FETCH_PLAYER_PROFILE,
+            SkyblockSQLQuery.FETCH_PLAYER_PROFILES_BULK, FETCH_PLAYER_PROFILES_BULK,
+            SkyblockSQLQuery.FETCH_ALL_PLAYER_PROFILES, FETCH_ALL_PLAYER_PROFILES,
             SkyblockSQLQuery.SAVE_PLAYER_PROFILE, SAVE_PLAYER_PROFILE,
             SkyblockSQLQuery.CREATE_ISLAND_DATA_TABLE, CREATE_ISLAND_DATA_TABLE,
             SkyblockSQLQuery.CREATE_ISLAND_ID_TABLE, CREATE_ISLAND_ID_TABLE,
@@ -50,9 +67,14 @@ public class PostgresSkyblockDatabase extends AbstractSQLSkyblockDatabase {
 
     @Override
     protected Connection createConnection() {
+        return createConnection(host, port);
+    }
+
+    @Override
+    protected Connection createConnection(String host, int port) {
         try {
             Class.forName("org.postgresql.Driver");
-            return DriverManager.getConnection("jdbc:postgresql://" + host + ":" + port + "/" + database, username, password);
+            return DriverManager.getConnection("jdbc:postgresql://" + host + ":" + port + "/" + database + "?prepareThreshold=1", username, password);
         } catch (Exception expected) { // The driver will throw an exception if it fails to connect
             return null;
         }
@@ -73,6 +95,31 @@ public class PostgresSkyblockDatabase extends AbstractSQLSkyblockDatabase {
         }
     }
 
+    @Override
+    protected String getBinaryUUIDType() {
+        return "UUID";
+    }
+
+    @Override
+    protected void setBinaryUUID(PreparedStatement statement, int index, UUID uuid) throws SQLException {
+        statement.setObject(index, uuid); // The driver maps java.util.UUID to the native type
+    }
+
+    @Override
+    protected UUID getBinaryUUID(ResultSet set, String column) throws SQLException {
+        return set.getObject(column, UUID.class);
+    }
+
+    @Override
+    protected SQLUUIDMigration createUUIDMigration(int batchSize) {
+        return new PostgresUUIDMigration(batchSize);
+    }
+
+    @Override
+    protected List<String> getTables() {
+        return List.of("island_data", "island_id", "profile");
+    }
+
     @Override
     public String getName() {
         return "postgres";
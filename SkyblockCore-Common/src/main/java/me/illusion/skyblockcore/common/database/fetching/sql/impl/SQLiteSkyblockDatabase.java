@@ -3,6 +3,8 @@ package me.illusion.skyblockcore.common.database.fetching.sql.impl;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Map;
 import me.illusion.skyblockcore.common.config.ReadOnlyConfigurationSection;
 import me.illusion.skyblockcore.common.database.fetching.sql.AbstractSQLSkyblockDatabase;
@@ -10,24 +12,38 @@ import me.illusion.skyblockcore.common.database.fetching.sql.SkyblockSQLQuery;
 
 /**
  * The sqlite implementation of {@link AbstractSQLSkyblockDatabase}
+ * <p>
+ * In tuned mode, the database uses WAL journaling, so readers never wait on the writer, and keeps a few reader connections open next to the writer. Every
+ * write already goes through the group committer's single thread, which batches queued writes into one transaction, so there is never more than one writer
+ * and SQLITE_BUSY stalls go away.
  */
 public class SQLiteSkyblockDatabase extends AbstractSQLSkyblockDatabase {
 
     private static final String FETCH_ISLAND_ID = "SELECT island_id FROM skyblock_ids WHERE owner_id = ?";
     private static final String FETCH_ISLAND_DATA = "SELECT * FROM skyblock_data WHERE island_id = ?";
-    private static final String DELETE_ISLAND_DATA = "DELETE FROM skyblock_data WHERE island_id";
-    private static final String DELETE_ISLAND_ID = "DELETE FROM skyblock_ids WHERE island_id";
+    private static final String FETCH_PLAYER_ISLAND = "SELECT islands.island_id, islands.owner_id FROM skyblock_ids ids"
+        + " JOIN skyblock_data islands ON islands.island_id = ids.island_id WHERE ids.owner_id = ?";
+    private static final String FETCH_ISLAND_DATA_BULK = "SELECT * FROM skyblock_data WHERE island_id IN ({ids})";
+    private static final String FETCH_ALL_ISLAND_DATA = "SELECT island_id, owner_id FROM skyblock_data";
+    private static final String DELETE_ISLAND_DATA = "DELETE FROM skyblock_data WHERE island_id = ?";
+    private static final String DELETE_ISLAND_ID = "DELETE FROM skyblock_ids WHERE island_id = ?";
     private static final String SAVE_ISLAND_DATA = "INSERT OR REPLACE INTO skyblock_data (island_id, owner_id) VALUES (?, ?)";
     private static final String SAVE_ISLAND_ID = "INSERT OR REPLACE INTO skyblock_ids (owner_id, island_id) VALUES (?, ?)";
     private static final String FETCH_PLAYER_PROFILE = "SELECT profile_id FROM skyblock_profiles WHERE player_id = ?";
+    private static final String FETCH_PLAYER_PROFILES_BULK = "SELECT player_id, profile_id FROM skyblock_profiles WHERE player_id IN ({ids})";
+    private static final String FETCH_ALL_PLAYER_PROFILES = "SELECT player_id, profile_id FROM skyblock_profiles";
     private static final String SAVE_PLAYER_PROFILE = "INSERT OR REPLACE INTO skyblock_profiles (player_id, profile_id) VALUES (?, ?)";
-    private static final String CREATE_ISLAND_DATA_TABLE = "CREATE TABLE IF NOT EXISTS skyblock_data (island_id VARCHAR(36) PRIMARY KEY, owner_id VARCHAR(36))";
-    private static final String CREATE_ISLAND_ID_TABLE = "CREATE TABLE IF NOT EXISTS skyblock_ids (owner_id VARCHAR(36) PRIMARY KEY, island_id VARCHAR(36))";
-    private static final String CREATE_PROFILE_TABLE = "CREATE TABLE IF NOT EXISTS skyblock_profiles (player_id VARCHAR(36) PRIMARY KEY, profile_id VARCHAR(36))";
+    private static final String CREATE_ISLAND_DATA_TABLE = "CREATE TABLE IF NOT EXISTS skyblock_data (island_id {uuid} PRIMARY KEY, owner_id {uuid})";
+    private static final String CREATE_ISLAND_ID_TABLE = "CREATE TABLE IF NOT EXISTS skyblock_ids (owner_id {uuid} PRIMARY KEY, island_id {uuid})";
+    private static final String CREATE_PROFILE_TABLE = "CREATE TABLE IF NOT EXISTS skyblock_profiles (player_id {uuid} PRIMARY KEY, profile_id {uuid})";
 
     private final File dataFolder;
     private File databaseFile;
 
+    private boolean tuned;
+    private int cacheSizeKb;
+    private int mmapSizeMb;
+
     public SQLiteSkyblockDatabase(File dataFolder) {
         this.dataFolder = dataFolder;
     }
@@ -37,11 +53,16 @@ public class SQLiteSkyblockDatabase extends AbstractSQLSkyblockDatabase {
         return of(
             SkyblockSQLQuery.FETCH_ISLAND_ID, FETCH_ISLAND_ID,
             SkyblockSQLQuery.FETCH_ISLAND_DATA, FETCH_ISLAND_DATA,
+            SkyblockSQLQuery.FETCH_PLAYER_ISLAND, FETCH_PLAYER_ISLAND,
+            SkyblockSQLQuery.FETCH_ISLAND_DATA_BULK, FETCH_ISLAND_DATA_BULK,
+            SkyblockSQLQuery.FETCH_ALL_ISLAND_DATA, FETCH_ALL_ISLAND_DATA,
             SkyblockSQLQuery.DELETE_ISLAND_DATA, DELETE_ISLAND_DATA,
             SkyblockSQLQuery.DELETE_ISLAND_ID, DELETE_ISLAND_ID,
             SkyblockSQLQuery.SAVE_ISLAND_DATA, SAVE_ISLAND_DATA,
             SkyblockSQLQuery.SAVE_ISLAND_ID, SAVE_ISLAND_ID,
             SkyblockSQLQuery.FETCH_PLAYER_PROFILE, FETCH_PLAYER_PROFILE,
+            SkyblockSQLQuery.FETCH_PLAYER_PROFILES_BULK, FETCH_PLAYER_PROFILES_BULK,
+            SkyblockSQLQuery.FETCH_ALL_PLAYER_PROFILES, FETCH_ALL_PLAYER_PROFILES,
             SkyblockSQLQuery.SAVE_PLAYER_PROFILE, SAVE_PLAYER_PROFILE,
             SkyblockSQLQuery.CREATE_ISLAND_DATA_TABLE, CREATE_ISLAND_DATA_TABLE,
             SkyblockSQLQuery.CREATE_ISLAND_ID_TABLE, CREATE_ISLAND_ID_TABLE,
@@ -53,7 +74,10 @@ public class SQLiteSkyblockDatabase extends AbstractSQLSkyblockDatabase {
     protected Connection createConnection() {
         try {
             Class.forName("org.sqlite.JDBC");
-            return DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+            Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+
+            configure(connection);
+            return connection;
         } catch (Exception expected) { // The driver will throw an exception if it fails to connect
             return null;
         }
@@ -64,14 +88,48 @@ public class SQLiteSkyblockDatabase extends AbstractSQLSkyblockDatabase {
         String fileName = properties.getString("file-name", "database");
         databaseFile = new File(dataFolder, fileName + ".db");
 
-        try (Connection connection = getConnection()) {
-            return connection.isValid(5);
+        tuned = isTuned(properties);
+        cacheSizeKb = properties.getInt("tuned.cache-size-kb", 16384);
+        mmapSizeMb = properties.getInt("tuned.mmap-size-mb", 256);
+
+        try (Connection connection = createConnection()) { // The pool is only created once the driver is enabled
+            return connection != null && connection.isValid(5);
         } catch (Exception e) {
             e.printStackTrace();
             return false;
         }
     }
 
+    @Override
+    protected int getDefaultPoolSize(ReadOnlyConfigurationSection properties) {
+        // Read from the properties, the executor is sized from this before enableDriver runs. This is the only place the reader count is read
+        if (isTuned(properties)) {
+            return properties.getInt("tuned.readers", 4) + 1; // WAL lets readers run alongside the single writer
+        }
+
+        return 1; // SQLite only allows a single writer, more connections would just wait on the file lock
+    }
+
+    private boolean isTuned(ReadOnlyConfigurationSection properties) {
+        return properties.getBoolean("tuned.enabled", true);
+    }
+
+    private void configure(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA busy_timeout = 5000"); // Wait on a lock instead of failing straight away with SQLITE_BUSY
+
+            if (!tuned) {
+                return;
+            }
+
+            statement.execute("PRAGMA journal_mode = WAL"); // Persistent, stored in the database file
+            statement.execute("PRAGMA synchronous = NORMAL"); // Safe with WAL, only the last commits can be lost on power loss, never corrupted
+            statement.execute("PRAGMA cache_size = -" + cacheSizeKb); // Negative values are in KiB
+            statement.execute("PRAGMA mmap_size = " + (long) mmapSizeMb * 1024 * 1024);
+            statement.execute("PRAGMA temp_store = MEMORY");
+        }
+    }
+
     @Override
     public String getName() {
         return "sqlite";
@@ -0,0 +1,50 @@
+package me.illusion.skyblockcore.common.database.fetching.sql.migration;
+
+import java.util.List;
+
+/**
+ * The mysql and mariadb implementation of {@link SQLUUIDMigration}, storing UUIDs as BINARY(16)
+ */
+public class MySQLUUIDMigration extends SQLUUIDMigration {
+
+    public MySQLUUIDMigration(int batchSize) {
+        super("BINARY(16)", batchSize);
+    }
+
+    @Override
+    protected String toBinary(String expression) {
+        return "UNHEX(REPLACE(" + expression + ", '-', ''))";
+    }
+
+    @Override
+    protected String insertIgnoring(String table, String columns, String select) {
+        return "INSERT IGNORE INTO " + table + " (" + columns + ") " + select;
+    }
+
+    @Override
+    protected List<String> createMirrorTriggers(String table, String shadow, String primaryKey, List<String> columns) {
+        String columnList = String.join(", ", columns);
+        String replace = "REPLACE INTO " + shadow + " (" + columnList + ") VALUES (" + mirroredValues(columns) + ")";
+        String delete = "DELETE FROM " + shadow + " WHERE " + primaryKey + " = " + toBinary("OLD." + primaryKey);
+
+        return List.of(
+            "DROP TRIGGER IF EXISTS " + table + "_uuid_insert",
+            "DROP TRIGGER IF EXISTS " + table + "_uuid_update",
+            "DROP TRIGGER IF EXISTS " + table + "_uuid_delete",
+            "CREATE TRIGGER " + table + "_uuid_insert AFTER INSERT ON " + table + " FOR EACH ROW " + replace,
+            "CREATE TRIGGER " + table + "_uuid_update AFTER UPDATE ON " + table + " FOR EACH ROW BEGIN " + delete + "; " + replace + "; END",
+            "CREATE TRIGGER " + table + "_uuid_delete AFTER DELETE ON " + table + " FOR EACH ROW " + delete
+        );
+    }
+
+    @Override
+    protected List<String> swapTables(String table, String shadow, String legacy) {
+        // RENAME TABLE swaps both tables atomically, the triggers move along with the original table and are dropped right after
+        return List.of(
+            "RENAME TABLE " + table + " TO " + legacy + ", " + shadow + " TO " + table,
+            "DROP TRIGGER IF EXISTS " + table + "_uuid_insert",
+            "DROP TRIGGER IF EXISTS " + table + "_uuid_update",
+            "DROP TRIGGER IF EXISTS " + table + "_uuid_delete"
+        );
+    }
+}
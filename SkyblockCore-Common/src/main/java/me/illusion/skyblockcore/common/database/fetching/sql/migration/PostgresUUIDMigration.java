@@ -0,0 +1,55 @@
+package me.illusion.skyblockcore.common.database.fetching.sql.migration;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The postgres implementation of {@link SQLUUIDMigration}, storing UUIDs with the native UUID type
+ */
+public class PostgresUUIDMigration extends SQLUUIDMigration {
+
+    public PostgresUUIDMigration(int batchSize) {
+        super("UUID", batchSize);
+    }
+
+    @Override
+    protected String toBinary(String expression) {
+        return "CAST(" + expression + " AS UUID)";
+    }
+
+    @Override
+    protected String insertIgnoring(String table, String columns, String select) {
+        return "INSERT INTO " + table + " (" + columns + ") " + select + " ON CONFLICT DO NOTHING";
+    }
+
+    @Override
+    protected List<String> createMirrorTriggers(String table, String shadow, String primaryKey, List<String> columns) {
+        String function = table + "_uuid_mirror";
+        String columnList = String.join(", ", columns);
+        String updates = columns.stream().map(column -> column + " = EXCLUDED." + column).collect(Collectors.joining(", "));
+
+        String body = "BEGIN "
+            + "IF TG_OP IN ('UPDATE', 'DELETE') THEN DELETE FROM " + shadow + " WHERE " + primaryKey + " = " + toBinary("OLD." + primaryKey) + "; END IF; "
+            + "IF TG_OP IN ('INSERT', 'UPDATE') THEN INSERT INTO " + shadow + " (" + columnList + ") VALUES (" + mirroredValues(columns) + ") "
+            + "ON CONFLICT (" + primaryKey + ") DO UPDATE SET " + updates + "; END IF; "
+            + "RETURN NULL; END;";
+
+        return List.of(
+            "CREATE OR REPLACE FUNCTION " + function + "() RETURNS TRIGGER AS $$ " + body + " $$ LANGUAGE plpgsql",
+            "DROP TRIGGER IF EXISTS " + function + " ON " + table,
+            "CREATE TRIGGER " + function + " AFTER INSERT OR UPDATE OR DELETE ON " + table + " FOR EACH ROW EXECUTE FUNCTION " + function + "()"
+        );
+    }
+
+    @Override
+    protected List<String> swapTables(String table, String shadow, String legacy) {
+        String function = table + "_uuid_mirror";
+
+        return List.of(
+            "DROP TRIGGER IF EXISTS " + function + " ON " + table,
+            "DROP FUNCTION IF EXISTS " + function + "()",
+            "ALTER TABLE " + table + " RENAME TO " + legacy,
+            "ALTER TABLE " + shadow + " RENAME TO " + table
+        );
+    }
+}
@@ -0,0 +1,234 @@
+package me.illusion.skyblockcore.common.database.fetching.sql.migration;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Migrates a table storing UUIDs as VARCHAR(36) to a binary UUID column type, without taking the table offline. This follows the usual online schema change
+ * approach:
+ * <ol>
+ *     <li>A shadow table is created with the binary column types</li>
+ *     <li>Triggers on the original table mirror every write into the shadow table, so servers still running on the old schema keep it up to date</li>
+ *     <li>Existing rows are copied over in small batches, ordered by primary key, without overwriting rows the triggers already mirrored</li>
+ *     <li>The tables are swapped atomically, the original table is kept with a "_legacy" suffix</li>
+ * </ol>
+ * Every column of a migrated table is expected to hold a UUID, which is the case for all of the skyblock tables.
+ */
+public abstract class SQLUUIDMigration {
+
+    private final String binaryType;
+    private final int batchSize;
+
+    protected SQLUUIDMigration(String binaryType, int batchSize) {
+        this.binaryType = binaryType;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Migrates a table, if it still uses string UUIDs
+     *
+     * @param connection The connection to use, it must be in auto-commit mode
+     * @param table      The table to migrate
+     * @return If the table was migrated, false if it doesn't exist or is already migrated
+     * @throws SQLException If the migration failed, it is safe to run it again
+     */
+    public boolean migrate(Connection connection, String table) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        boolean legacy = false;
+
+        DatabaseMetaData metadata = connection.getMetaData();
+
+        try (ResultSet set = metadata.getColumns(connection.getCatalog(), null, table, null)) {
+            while (set.next()) {
+                columns.add(set.getString("COLUMN_NAME"));
+                legacy |= set.getString("TYPE_NAME").toUpperCase(Locale.ROOT).contains("CHAR");
+            }
+        }
+
+        if (!legacy) {
+            return false; // Either the table doesn't exist yet, or it has already been migrated
+        }
+
+        String primaryKey = null;
+
+        try (ResultSet set = metadata.getPrimaryKeys(connection.getCatalog(), null, table)) {
+            if (set.next()) {
+                primaryKey = set.getString("COLUMN_NAME");
+            }
+        }
+
+        if (primaryKey == null) {
+            throw new SQLException("Table " + table + " has no primary key, it can't be migrated in batches");
+        }
+
+        String shadow = table + "_binary";
+
+        execute(connection, createShadowTable(shadow, primaryKey, columns));
+
+        for (String statement : createMirrorTriggers(table, shadow, primaryKey, columns)) {
+            execute(connection, statement);
+        }
+
+        copyRows(connection, table, shadow, primaryKey, columns);
+        swap(connection, table, shadow, table + "_legacy");
+        return true;
+    }
+
+    /**
+     * Checks if a table was already migrated to binary UUIDs. There is no migration back to strings, so this is used to refuse a string configuration that
+     * would bind strings into binary columns.
+     *
+     * @param connection The connection to use
+     * @param table      The table to check
+     * @return If the table exists and none of its columns are strings
+     * @throws SQLException If the table could not be inspected
+     */
+    public static boolean isMigrated(Connection connection, String table) throws SQLException {
+        boolean exists = false;
+
+        try (ResultSet set = connection.getMetaData().getColumns(connection.getCatalog(), null, table, null)) {
+            while (set.next()) {
+                if (set.getString("TYPE_NAME").toUpperCase(Locale.ROOT).contains("CHAR")) {
+                    return false;
+                }
+
+                exists = true;
+            }
+        }
+
+        return exists;
+    }
+
+    private String createShadowTable(String shadow, String primaryKey, List<String> columns) {
+        String definitions = columns.stream()
+            .map(column -> column + " " + binaryType + (column.equals(primaryKey) ? " PRIMARY KEY" : ""))
+            .collect(Collectors.joining(", "));
+
+        return "CREATE TABLE IF NOT EXISTS " + shadow + " (" + definitions + ")";
+    }
+
+    private void copyRows(Connection connection, String table, String shadow, String primaryKey, List<String> columns) throws SQLException {
+        String converted = columns.stream().map(this::toBinary).collect(Collectors.joining(", "));
+        String select = "SELECT " + converted + " FROM " + table + " WHERE " + primaryKey + " > ? AND " + primaryKey + " <= ?";
+        String selectRest = "SELECT " + converted + " FROM " + table + " WHERE " + primaryKey + " > ?";
+
+        String findUpperBound = "SELECT " + primaryKey + " FROM " + table + " WHERE " + primaryKey + " > ? ORDER BY " + primaryKey
+            + " LIMIT 1 OFFSET " + (batchSize - 1); // The last key of the next batch
+        String copyBatch = insertIgnoring(shadow, String.join(", ", columns), select);
+        String copyRest = insertIgnoring(shadow, String.join(", ", columns), selectRest);
+
+        String lowerBound = ""; // Sorts before any UUID
+
+        while (true) {
+            String upperBound = null;
+
+            try (PreparedStatement statement = connection.prepareStatement(findUpperBound)) {
+                statement.setString(1, lowerBound);
+
+                try (ResultSet set = statement.executeQuery()) {
+                    if (set.next()) {
+                        upperBound = set.getString(1);
+                    }
+                }
+            }
+
+            if (upperBound == null) { // Less than a full batch left
+                try (PreparedStatement statement = connection.prepareStatement(copyRest)) {
+                    statement.setString(1, lowerBound);
+                    statement.executeUpdate();
+                }
+
+                return;
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(copyBatch)) {
+                statement.setString(1, lowerBound);
+                statement.setString(2, upperBound);
+                statement.executeUpdate();
+            }
+
+            lowerBound = upperBound;
+        }
+    }
+
+    private void swap(Connection connection, String table, String shadow, String legacy) throws SQLException {
+        connection.setAutoCommit(false);
+
+        try (Statement statement = connection.createStatement()) {
+            for (String query : swapTables(table, shadow, legacy)) {
+                statement.execute(query);
+            }
+
+            connection.commit();
+        } catch (SQLException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void execute(Connection connection, String query) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(query);
+        }
+    }
+
+    /**
+     * Converts a string UUID expression to the binary type
+     *
+     * @param expression The expression, usually a column name
+     * @return The converting expression
+     */
+    protected abstract String toBinary(String expression);
+
+    /**
+     * Creates an insert statement which skips rows whose primary key already exists
+     *
+     * @param table   The table to insert into
+     * @param columns The comma separated columns
+     * @param select  The select statement providing the rows
+     * @return The statement
+     */
+    protected abstract String insertIgnoring(String table, String columns, String select);
+
+    /**
+     * Creates the statements which install triggers mirroring every insert, update and delete on the table into the shadow table. These are run again if a
+     * migration is resumed, so they must replace any existing triggers.
+     *
+     * @param table      The original table
+     * @param shadow     The shadow table
+     * @param primaryKey The primary key column
+     * @param columns    All the columns
+     * @return The statements
+     */
+    protected abstract List<String> createMirrorTriggers(String table, String shadow, String primaryKey, List<String> columns);
+
+    /**
+     * Creates the statements which swap the shadow table in and remove the triggers. These are run in a single transaction.
+     *
+     * @param table  The original table
+     * @param shadow The shadow table
+     * @param legacy The name the original table is moved to
+     * @return The statements
+     */
+    protected abstract List<String> swapTables(String table, String shadow, String legacy);
+
+    /**
+     * Converts the NEW row's columns, for use inside a trigger
+     *
+     * @param columns The columns
+     * @return The comma separated, converted values
+     */
+    protected String mirroredValues(List<String> columns) {
+        return columns.stream().map(column -> toBinary("NEW." + column)).collect(Collectors.joining(", "));
+    }
+}
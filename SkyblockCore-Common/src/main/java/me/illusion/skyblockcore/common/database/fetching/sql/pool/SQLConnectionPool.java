@@ -0,0 +1,511 @@
+package me.illusion.skyblockcore.common.database.fetching.sql.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import me.illusion.skyblockcore.common.utilities.metrics.LatencyHistogram;
+
+/**
+ * A small, bounded JDBC connection pool. Connections handed out by the pool are proxies, closing them returns the underlying connection to the pool instead of
+ * closing it, so callers can keep using try-with-resources.
+ * <p>
+ * Idle connections are only validated once they have been idle for a while, and connections are retired once they reach their max lifetime, so the database
+ * or a proxy in front of it never closes them under our feet.
+ * <p>
+ * Every connection also caches its prepared statements, keyed by their SQL. Closing a cached statement only resets it, so hot queries are parsed and planned
+ * once per connection instead of once per call (server-side, if the driver is configured for server-side prepares).
+ */
+public class SQLConnectionPool {
+
+    private final BlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>(); // Most recently used first
+    private final Semaphore leases;
+
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final LongAdder createdConnections = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    private final Supplier<Connection> factory;
+    private final int maxSize;
+    private final long connectionTimeoutMillis;
+    private final long idleValidationMillis;
+    private final long maxLifetimeMillis;
+    private final int statementCacheSize;
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a new connection pool
+     *
+     * @param factory                 Creates a new physical connection, returning null if the database can't be reached
+     * @param maxSize                 The maximum amount of connections, both in use and idle
+     * @param connectionTimeoutMillis The maximum time to wait for a connection before failing
+     * @param idleValidationMillis    Connections idle for longer than this are validated before being handed out
+     * @param maxLifetimeMillis       Connections older than this are closed instead of being reused
+     * @param statementCacheSize      The maximum amount of prepared statements cached per connection, 0 disables the cache
+     */
+    public SQLConnectionPool(Supplier<Connection> factory, int maxSize, long connectionTimeoutMillis, long idleValidationMillis, long maxLifetimeMillis,
+        int statementCacheSize) {
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+        this.idleValidationMillis = idleValidationMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.leases = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Borrows a connection from the pool, creating one if there are no usable idle connections. The connection must be closed to return it to the pool.
+     *
+     * @return The connection
+     * @throws SQLException If no connection became available in time, or a new connection could not be created
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("The connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            if (!leases.tryAcquire(connectionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLException("Timed out after " + connectionTimeoutMillis + "ms waiting for a connection, all " + maxSize + " are in use");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", ex);
+        }
+
+        waitTimes.recordSince(start);
+
+        try {
+            return lease(takeUsableConnection());
+        } catch (SQLException | RuntimeException ex) {
+            leases.release();
+            throw ex;
+        }
+    }
+
+    private PooledConnection takeUsableConnection() throws SQLException {
+        PooledConnection pooled;
+
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+
+            closeQuietly(pooled.physical);
+        }
+
+        Connection connection = factory.get();
+
+        if (connection == null) {
+            throw new SQLException("Could not create a new connection");
+        }
+
+        createdConnections.increment();
+        return new PooledConnection(connection);
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        long now = System.currentTimeMillis();
+
+        if (now - pooled.createdAt >= maxLifetimeMillis) {
+            return false;
+        }
+
+        if (now - pooled.lastUsed < idleValidationMillis) {
+            return true; // Used recently, validating it would cost a round-trip on every query
+        }
+
+        try {
+            return pooled.physical.isValid(5);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private Connection lease(PooledConnection pooled) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[]{Connection.class}, new LeaseHandler(pooled));
+    }
+
+    private void giveBack(PooledConnection pooled, boolean broken) {
+        try {
+            Connection physical = pooled.physical;
+
+            if (closed || broken || physical.isClosed() || System.currentTimeMillis() - pooled.createdAt >= maxLifetimeMillis) {
+                closeQuietly(physical);
+                return;
+            }
+
+            pooled.releaseStatements(); // Statements the borrower never closed
+
+            if (!physical.getAutoCommit()) { // Never hand out a connection with someone else's open transaction
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+
+            pooled.lastUsed = System.currentTimeMillis();
+            idleConnections.offerFirst(pooled);
+
+            if (closed && idleConnections.remove(pooled)) { // Closed while we were returning it
+                closeQuietly(physical);
+            }
+        } catch (SQLException ex) {
+            closeQuietly(pooled.physical);
+        } finally {
+            leases.release();
+        }
+    }
+
+    /**
+     * Closes the pool. Idle connections are closed straight away, borrowed ones once they are returned, and no more connections are handed out.
+     */
+    public void close() {
+        closed = true;
+
+        PooledConnection pooled;
+
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            closeQuietly(pooled.physical);
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Already broken, nothing else to do
+        }
+    }
+
+    // -------------- METRICS -------------- //
+
+    /**
+     * Gets the time callers spent waiting for a connection
+     *
+     * @return The wait time histogram, in microseconds
+     */
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * Gets the amount of connections currently borrowed
+     *
+     * @return The amount of active connections
+     */
+    public int getActiveConnections() {
+        return maxSize - leases.availablePermits();
+    }
+
+    /**
+     * Gets the amount of connections waiting in the pool
+     *
+     * @return The amount of idle connections
+     */
+    public int getIdleConnections() {
+        return idleConnections.size();
+    }
+
+    /**
+     * Gets the amount of physical connections created since the pool was created
+     *
+     * @return The amount of created connections
+     */
+    public long getCreatedConnections() {
+        return createdConnections.sum();
+    }
+
+    /**
+     * Gets the amount of callers that gave up waiting for a connection
+     *
+     * @return The amount of timeouts
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Gets the amount of prepared statements served from a connection's cache
+     *
+     * @return The amount of cache hits
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    /**
+     * Gets the amount of prepared statements that had to be prepared
+     *
+     * @return The amount of cache misses
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private static boolean isConnectionError(SQLException ex) {
+        String state = ex.getSQLState();
+        return state != null && state.startsWith("08"); // SQLSTATE class 08 is "connection exception" across vendors
+    }
+
+    private final class PooledConnection {
+
+        private final Connection physical;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastUsed = createdAt;
+
+        // Only touched by the thread holding the lease. Access ordered, so the least recently used statement is evicted first
+        private final Map<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= statementCacheSize) {
+                    return false;
+                }
+
+                if (!leased.contains(eldest.getValue())) { // A statement in use is closed once the borrower closes it
+                    closeQuietly(eldest.getValue());
+                }
+
+                return true;
+            }
+        };
+
+        // Cached statements handed out on the current borrow, and not closed yet
+        private final Set<PreparedStatement> leased = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        private boolean isLeased(String sql) {
+            PreparedStatement statement = statements.get(sql);
+            return statement != null && leased.contains(statement);
+        }
+
+        private PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+
+            if (statement != null && !statement.isClosed()) {
+                statementCacheHits.increment();
+            } else {
+                statementCacheMisses.increment();
+                statement = physical.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+
+            leased.add(statement);
+            return statement;
+        }
+
+        private void release(String sql, PreparedStatement statement) {
+            leased.remove(statement);
+
+            if (statements.get(sql) != statement) { // Evicted while it was in use
+                closeQuietly(statement);
+            }
+        }
+
+        private void releaseStatements() {
+            for (PreparedStatement statement : leased) {
+                if (!statements.containsValue(statement)) {
+                    closeQuietly(statement);
+                }
+            }
+
+            leased.clear();
+        }
+
+        private void closeQuietly(PreparedStatement statement) {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // The statement is gone either way
+            }
+        }
+    }
+
+    /**
+     * Delegates every call to the physical connection, except for close, which returns the connection to the pool
+     */
+    private final class LeaseHandler implements InvocationHandler {
+
+        private final PooledConnection pooled;
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        private volatile boolean broken;
+
+        private LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (returned.compareAndSet(false, true)) {
+                        giveBack(pooled, broken);
+                    }
+
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned.get() || pooled.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled" + pooled.physical;
+                }
+                case "prepareStatement" -> {
+                    // A query already in use on this borrow gets its own uncached statement, sharing one would reset it under the first user
+                    if (statementCacheSize > 0 && args.length == 1 && !returned.get() && !pooled.isLeased((String) args[0])) {
+                        return cached((String) args[0]);
+                    }
+                }
+            }
+
+            if (returned.get()) {
+                throw new SQLException("Connection was already returned to the pool");
+            }
+
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException ex) {
+                Throwable cause = ex.getCause();
+
+                if (cause instanceof SQLException sqlException && isConnectionError(sqlException)) {
+                    broken = true; // Don't give this connection to anyone else
+                }
+
+                throw cause;
+            }
+        }
+
+        private PreparedStatement cached(String sql) throws SQLException {
+            try {
+                PreparedStatement statement = pooled.prepare(sql);
+                return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class[]{PreparedStatement.class},
+                    new CachedStatementHandler(this, sql, statement));
+            } catch (SQLException ex) {
+                if (isConnectionError(ex)) {
+                    broken = true;
+                }
+
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Delegates every call to the cached statement, except for close, which resets the statement instead of closing it
+     */
+    private static final class CachedStatementHandler implements InvocationHandler {
+
+        private final List<ResultSet> resultSets = new ArrayList<>(1);
+        private final LeaseHandler lease;
+        private final String sql;
+        private final PreparedStatement statement;
+
+        private boolean closed;
+
+        private CachedStatementHandler(LeaseHandler lease, String sql, PreparedStatement statement) {
+            this.lease = lease;
+            this.sql = sql;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+
+                        try {
+                            reset();
+                        } finally {
+                            lease.pooled.release(sql, statement);
+                        }
+                    }
+
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || statement.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Cached" + statement;
+                }
+            }
+
+            if (closed) {
+                throw new SQLException("Statement was already closed");
+            }
+
+            try {
+                Object result = method.invoke(statement, args);
+
+                if (result instanceof ResultSet resultSet) {
+                    resultSets.add(resultSet); // Callers don't always close their result sets, a real close would have
+                }
+
+                return result;
+            } catch (InvocationTargetException ex) {
+                Throwable cause = ex.getCause();
+
+                if (cause instanceof SQLException sqlException && isConnectionError(sqlException)) {
+                    lease.broken = true;
+                }
+
+                throw cause;
+            }
+        }
+
+        private void reset() throws SQLException {
+            for (ResultSet resultSet : resultSets) {
+                resultSet.close();
+            }
+
+            resultSets.clear();
+            statement.clearParameters();
+            statement.clearBatch();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package me.illusion.skyblockcore.common.database.fetching.sql.replica;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import me.illusion.skyblockcore.common.database.fetching.sql.pool.SQLConnectionPool;
+
+/**
+ * Routes reads between the primary and its read replicas. Reads are spread over the replicas round-robin, and writes always go to the primary.
+ * <p>
+ * Replicas apply writes asynchronously, so a read right after a write could still see the old value. To avoid that, every written key is pinned to the primary
+ * for a short window, and reads touching a pinned key go to the primary. A replica which fails to hand out a connection is skipped for a while, and if no
+ * replica is usable, reads fall back to the primary.
+ */
+public class SQLReplicaRouter {
+
+    private static final int SWEEP_THRESHOLD = 4096; // Expired pins are only swept once there are this many, so the map never grows unbounded
+
+    private final Map<UUID, Long> pins = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder pinnedReads = new LongAdder();
+
+    private final SQLConnectionPool primary;
+    private final List<SQLConnectionPool> replicas;
+    private final long[] unhealthyUntil; // 0 while healthy. Racy writes are fine, this is only a hint
+    private final long pinNanos;
+    private final long retryNanos;
+
+    /**
+     * Creates a new replica router
+     *
+     * @param primary          The primary's pool
+     * @param replicas         The replicas' pools, may be empty
+     * @param readYourWritesMs How long a written key stays pinned to the primary
+     * @param replicaRetryMs   How long a failing replica is skipped for
+     */
+    public SQLReplicaRouter(SQLConnectionPool primary, List<SQLConnectionPool> replicas, long readYourWritesMs, long replicaRetryMs) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.unhealthyUntil = new long[replicas.size()];
+        this.pinNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMs);
+        this.retryNanos = TimeUnit.MILLISECONDS.toNanos(replicaRetryMs);
+    }
+
+    /**
+     * Pins keys to the primary, this should be called when a write is submitted and again once it is committed
+     *
+     * @param keys The written keys
+     */
+    public void pin(Collection<UUID> keys) {
+        if (replicas.isEmpty() || pinNanos <= 0) {
+            return;
+        }
+
+        long until = System.nanoTime() + pinNanos;
+
+        for (UUID key : keys) {
+            pins.put(key, until);
+        }
+
+        if (pins.size() > SWEEP_THRESHOLD) {
+            long now = System.nanoTime();
+            pins.values().removeIf(expiry -> expiry - now < 0);
+        }
+    }
+
+    /**
+     * Borrows a connection for a read
+     *
+     * @param keys The keys the read touches
+     * @return The connection, from a replica unless a key is pinned or no replica is usable
+     * @throws SQLException If the primary could not hand out a connection
+     */
+    public Connection getReadConnection(Collection<UUID> keys) throws SQLException {
+        if (replicas.isEmpty()) {
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+
+        if (isPinned(keys)) {
+            pinnedReads.increment();
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+
+        for (int offset = 0; offset < replicas.size(); offset++) {
+            int index = (start + offset) % replicas.size();
+            long until = unhealthyUntil[index];
+
+            if (until != 0 && until - System.nanoTime() > 0) {
+                continue;
+            }
+
+            try {
+                Connection connection = replicas.get(index).getConnection();
+                unhealthyUntil[index] = 0;
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException ex) { // Down or saturated, the primary or another replica picks up the read
+                unhealthyUntil[index] = System.nanoTime() + retryNanos;
+            }
+        }
+
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    private boolean isPinned(Collection<UUID> keys) {
+        if (pins.isEmpty()) {
+            return false;
+        }
+
+        long now = System.nanoTime();
+
+        for (UUID key : keys) {
+            Long until = pins.get(key);
+
+            if (until == null) {
+                continue;
+            }
+
+            if (until - now > 0) {
+                return true;
+            }
+
+            pins.remove(key, until);
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the replicas' pools
+     *
+     * @return The replica pools
+     */
+    public List<SQLConnectionPool> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Gets the amount of reads served by the primary
+     *
+     * @return The primary reads
+     */
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+
+    /**
+     * Gets the amount of reads served by a replica
+     *
+     * @return The replica reads
+     */
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    /**
+     * Gets the amount of reads sent to the primary because they touched a recently written key
+     *
+     * @return The pinned reads
+     */
+    public long getPinnedReads() {
+        return pinnedReads.sum();
+    }
+}
@@ -0,0 +1,263 @@
+package me.illusion.skyblockcore.common.database.fetching.sql.transaction;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import me.illusion.skyblockcore.common.utilities.metrics.LatencyHistogram;
+
+/**
+ * Runs writes inside transactions, merging concurrent writes into a single transaction. Every commit costs a round-trip and a log flush on the database, so
+ * under load, sharing one commit between many writes cuts most of that cost.
+ * <p>
+ * Writes are queued and picked up by a single committer thread. It takes everything queued at that point, up to the maximum batch size, and can optionally
+ * wait a little for more writes to arrive. A quiet database therefore commits every write straight away, and batches grow on their own while a commit is in
+ * flight.
+ * <p>
+ * If a batch fails, it is rolled back and every write is retried in its own transaction, so one bad write never fails the others.
+ */
+public class SQLGroupCommitter {
+
+    private final BlockingQueue<QueuedWrite> queue = new LinkedBlockingQueue<>();
+
+    private final LatencyHistogram commitTimes = new LatencyHistogram();
+    private final LongAdder transactions = new LongAdder();
+    private final LongAdder committedWrites = new LongAdder();
+
+    private final ConnectionSource connections;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    /**
+     * Creates a new group committer, and starts its thread
+     *
+     * @param name          The name of the database, used for the thread name
+     * @param connections   Where to borrow connections from, connections are closed after every batch
+     * @param maxBatchSize  The maximum amount of writes in a single transaction, 1 disables grouping
+     * @param maxWaitMicros How long the first write of a batch may wait for more writes to join it
+     */
+    public SQLGroupCommitter(String name, ConnectionSource connections, int maxBatchSize, long maxWaitMicros) {
+        this.connections = connections;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, maxWaitMicros));
+
+        this.thread = new Thread(this::run, "skyblock-" + name + "-committer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a write
+     *
+     * @param write The write
+     * @return A future which completes once the write is committed
+     */
+    public CompletableFuture<Void> submit(SQLWrite write) {
+        QueuedWrite queued = new QueuedWrite(write);
+
+        if (!running) {
+            queued.future.completeExceptionally(new IllegalStateException("The committer is shut down"));
+            return queued.future;
+        }
+
+        queue.add(queued);
+
+        // A shutdown between the check above and the add may have drained the queue already, in which case nobody would ever complete this write
+        if (!running && queue.remove(queued)) {
+            queued.future.completeExceptionally(new IllegalStateException("The committer is shut down"));
+        }
+
+        return queued.future;
+    }
+
+    /**
+     * Stops accepting writes, and waits for the queued ones to be committed. Writes still queued after the timeout are failed.
+     *
+     * @param timeoutMillis The maximum time to wait, 0 doesn't wait at all
+     */
+    public void shutdown(long timeoutMillis) {
+        running = false;
+
+        try {
+            if (timeoutMillis > 0) { // Joining with 0 would wait forever
+                thread.join(timeoutMillis);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<QueuedWrite> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        fail(remaining, new IllegalStateException("The committer was shut down before the write was committed"));
+    }
+
+    private void run() {
+        List<QueuedWrite> batch = new ArrayList<>();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedWrite first = queue.poll(100, TimeUnit.MILLISECONDS); // Wakes up now and then to notice a shutdown
+
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                collect(batch);
+                commit(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fail(batch, ex);
+                return;
+            } catch (Throwable throwable) { // Never let the committer die, or leave a batch waiting forever, the batch's callers see the error
+                fail(batch, throwable);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fail(List<QueuedWrite> writes, Throwable throwable) {
+        for (QueuedWrite write : writes) {
+            write.future.completeExceptionally(throwable); // Does nothing for the writes that were already committed
+        }
+    }
+
+    private void collect(List<QueuedWrite> batch) throws InterruptedException {
+        queue.drainTo(batch, maxBatchSize - batch.size());
+
+        if (maxWaitNanos == 0) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + maxWaitNanos;
+
+        while (batch.size() < maxBatchSize) {
+            QueuedWrite next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+
+            if (next == null) {
+                return;
+            }
+
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private void commit(List<QueuedWrite> batch) {
+        long start = System.nanoTime();
+
+        try (Connection connection = connections.getConnection()) {
+            if (!runTransaction(connection, batch) && batch.size() > 1) {
+                for (QueuedWrite write : batch) { // Find out which write failed, without failing the others
+                    runTransaction(connection, List.of(write));
+                }
+            }
+        } catch (SQLException ex) { // Couldn't get a connection at all
+            fail(batch, ex);
+        }
+
+        commitTimes.recordSince(start);
+    }
+
+    private boolean runTransaction(Connection connection, List<QueuedWrite> writes) throws SQLException {
+        connection.setAutoCommit(false);
+
+        try {
+            for (QueuedWrite write : writes) {
+                write.write.execute(connection);
+            }
+
+            connection.commit();
+        } catch (Throwable throwable) { // Errors too, re-enabling auto-commit below would otherwise commit a half-run transaction
+            connection.rollback();
+
+            if (writes.size() == 1) {
+                writes.get(0).future.completeExceptionally(throwable);
+            }
+
+            return false;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+
+        transactions.increment();
+        committedWrites.add(writes.size());
+
+        for (QueuedWrite write : writes) {
+            write.future.complete(null);
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets how long each batch took, from borrowing the connection to committing
+     *
+     * @return The commit time histogram
+     */
+    public LatencyHistogram getCommitTimes() {
+        return commitTimes;
+    }
+
+    /**
+     * Gets the amount of writes waiting for the committer
+     *
+     * @return The queue size
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the amount of committed transactions
+     *
+     * @return The transactions
+     */
+    public long getTransactions() {
+        return transactions.sum();
+    }
+
+    /**
+     * Gets the average amount of writes sharing a transaction
+     *
+     * @return The average batch size
+     */
+    public double getAverageBatchSize() {
+        long count = transactions.sum();
+        return count == 0 ? 0 : (double) committedWrites.sum() / count;
+    }
+
+    /**
+     * Provides the connections the committer writes with
+     */
+    @FunctionalInterface
+    public interface ConnectionSource {
+
+        /**
+         * Borrows a connection, closing it returns it
+         *
+         * @return The connection
+         * @throws SQLException If no connection could be obtained
+         */
+        Connection getConnection() throws SQLException;
+    }
+
+    private static class QueuedWrite {
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final SQLWrite write;
+
+        private QueuedWrite(SQLWrite write) {
+            this.write = write;
+        }
+    }
+}
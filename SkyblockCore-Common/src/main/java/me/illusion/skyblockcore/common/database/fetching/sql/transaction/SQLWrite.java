@@ -0,0 +1,21 @@
+package me.illusion.skyblockcore.common.database.fetching.sql.transaction;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Represents a write which runs inside a transaction. Writes must not commit, roll back or close the connection, the {@link SQLGroupCommitter} takes care of
+ * that.
+ */
+@FunctionalInterface
+public interface SQLWrite {
+
+    /**
+     * Runs the write
+     *
+     * @param connection The connection, with auto-commit disabled
+     * @throws SQLException If the write failed, this rolls back the transaction
+     */
+    void execute(Connection connection) throws SQLException;
+
+}
@@ -0,0 +1,562 @@
+package me.illusion.skyblockcore.common.database.fetching.writebehind;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import me.illusion.skyblockcore.common.config.ReadOnlyConfigurationSection;
+import me.illusion.skyblockcore.common.data.IslandData;
+import me.illusion.skyblockcore.common.database.fetching.SkyblockFetchingDatabase;
+import me.illusion.skyblockcore.common.utilities.metrics.LatencyHistogram;
+
+/**
+ * A write-behind layer in front of a {@link SkyblockFetchingDatabase}. Island and profile writes are queued instead of being sent straight away, repeated
+ * writes to the same key within the flush window are coalesced into one, and the queue is flushed in batches.
+ * <p>
+ * Reads check the queue first, so a write is visible to this server as soon as it is queued. The returned futures complete once the write reaches the
+ * database, writes which were coalesced share the same future.
+ * <p>
+ * A write the database rejects goes back into the queue and is retried with an increasing delay, unless a newer write to the same key was queued in the
+ * meantime, in which case its future follows the newer write. A write that is still rejected after the maximum amount of attempts is dropped, and its future
+ * fails, as it is most likely something the database will never accept.
+ */
+public class WriteBehindSkyblockDatabase implements SkyblockFetchingDatabase {
+
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+
+    private final Map<UUID, PendingWrite<IslandData>> pendingIslands = new ConcurrentHashMap<>(); // A null value means the island is deleted
+    private final Map<UUID, PendingWrite<UUID>> pendingProfiles = new ConcurrentHashMap<>();
+
+    // Writes taken off the queue but not written yet, reads still have to see these
+    private final Map<UUID, PendingWrite<IslandData>> flushingIslands = new ConcurrentHashMap<>();
+    private final Map<UUID, PendingWrite<UUID>> flushingProfiles = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram lag = new LatencyHistogram();
+    private final LongAdder queuedWrites = new LongAdder();
+    private final LongAdder flushedWrites = new LongAdder();
+    private final LongAdder retriedWrites = new LongAdder();
+    private final LongAdder droppedWrites = new LongAdder();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+
+    private final SkyblockFetchingDatabase delegate;
+    private final Logger logger;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final int maxAttempts;
+
+    /**
+     * Creates a new write-behind layer, and starts flushing it periodically
+     *
+     * @param delegate     The database to write to
+     * @param logger       The logger flush errors are reported to
+     * @param windowMillis How long writes are held back for coalescing
+     * @param maxBatchSize The maximum amount of writes sent at once, the queue is flushed early once it holds this many
+     * @param maxAttempts  How many times a write is sent before it is dropped
+     */
+    public WriteBehindSkyblockDatabase(SkyblockFetchingDatabase delegate, Logger logger, long windowMillis, int maxBatchSize, int maxAttempts) {
+        this.delegate = delegate;
+        this.logger = logger;
+        this.windowMillis = Math.max(1, windowMillis);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+
+        // A single thread keeps flushes in order, so a newer write to a key can never overtake an older one
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "skyblock-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        flusher.scheduleWithFixedDelay(this::flushQueued, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> enable(ReadOnlyConfigurationSection properties) {
+        return delegate.enable(properties);
+    }
+
+    @Override
+    public CompletableFuture<UUID> fetchIslandId(UUID profileId) {
+        PendingWrite<IslandData> pending = findPendingOwner(profileId);
+
+        if (pending != null) {
+            return CompletableFuture.completedFuture(pending.value.getIslandId());
+        }
+
+        return delegate.fetchIslandId(profileId).thenApply(islandId -> islandId != null && isPendingDeletion(islandId) ? null : islandId);
+    }
+
+    @Override
+    public CompletableFuture<IslandData> fetchIslandData(UUID islandId) {
+        PendingWrite<IslandData> pending = lookup(pendingIslands, flushingIslands, islandId);
+
+        if (pending != null) {
+            return CompletableFuture.completedFuture(pending.value); // Null if the island is pending deletion
+        }
+
+        return delegate.fetchIslandData(islandId);
+    }
+
+    @Override
+    public CompletableFuture<IslandData> fetchPlayerIsland(UUID profileId) {
+        PendingWrite<IslandData> pending = findPendingOwner(profileId);
+
+        if (pending != null) {
+            return CompletableFuture.completedFuture(pending.value);
+        }
+
+        return delegate.fetchPlayerIsland(profileId).thenApply(this::applyPendingDeletion);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, IslandData>> fetchIslandData(Collection<UUID> islandIds) {
+        Map<UUID, IslandData> results = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+
+        for (UUID islandId : islandIds) {
+            PendingWrite<IslandData> pending = lookup(pendingIslands, flushingIslands, islandId);
+
+            if (pending == null) {
+                missing.add(islandId);
+            } else if (pending.value != null) {
+                results.put(islandId, pending.value);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(results);
+        }
+
+        return delegate.fetchIslandData(missing).thenApply(fetched -> {
+            results.putAll(fetched);
+            return results;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> saveIslandData(IslandData data) {
+        return queue(pendingIslands, data.getIslandId(), data);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveIslandData(Collection<IslandData> data) {
+        return CompletableFuture.allOf(data.stream().map(this::saveIslandData).toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteIslandData(UUID islandId) {
+        return queue(pendingIslands, islandId, null);
+    }
+
+    @Override
+    public CompletableFuture<UUID> getProfileId(UUID playerId) {
+        PendingWrite<UUID> pending = lookup(pendingProfiles, flushingProfiles, playerId);
+
+        if (pending != null) {
+            return CompletableFuture.completedFuture(pending.value);
+        }
+
+        return delegate.getProfileId(playerId);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, UUID>> getProfileIds(Collection<UUID> playerIds) {
+        Map<UUID, UUID> results = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+
+        for (UUID playerId : playerIds) {
+            PendingWrite<UUID> pending = lookup(pendingProfiles, flushingProfiles, playerId);
+
+            if (pending == null) {
+                missing.add(playerId);
+            } else {
+                results.put(playerId, pending.value);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(results);
+        }
+
+        return delegate.getProfileIds(missing).thenApply(fetched -> {
+            results.putAll(fetched);
+            return results;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> setProfileId(UUID playerId, UUID profileId) {
+        return queue(pendingProfiles, playerId, profileId);
+    }
+
+    @Override
+    public CompletableFuture<Long> forEachIsland(int batchSize, Consumer<List<IslandData>> consumer) {
+        return flush().thenCompose(ignored -> delegate.forEachIsland(batchSize, consumer)); // The scan only sees what reached the database
+    }
+
+    @Override
+    public CompletableFuture<Long> forEachProfile(int batchSize, Consumer<Map<UUID, UUID>> consumer) {
+        return flush().thenCompose(ignored -> delegate.forEachProfile(batchSize, consumer));
+    }
+
+    /**
+     * Flushes every queued write, then flushes the underlying database. Writes waiting for a retry are retried on their own schedule, so if the database keeps
+     * failing the future doesn't complete, callers should wait with a timeout.
+     *
+     * @return A future which completes once everything queued before this call is written
+     */
+    @Override
+    public CompletableFuture<Void> flush() {
+        List<CompletableFuture<Void>> queued = new ArrayList<>();
+
+        // Flushing writes are included, a write that fails there goes back into the queue with the same future
+        pendingIslands.values().forEach(pending -> queued.add(pending.future));
+        pendingProfiles.values().forEach(pending -> queued.add(pending.future));
+        flushingIslands.values().forEach(pending -> queued.add(pending.future));
+        flushingProfiles.values().forEach(pending -> queued.add(pending.future));
+
+        flusher.execute(() -> {
+            while (flushQueued() > 0) {
+                // Keep going until only writes waiting for a retry are left
+            }
+        });
+
+        return CompletableFuture.allOf(queued.toArray(new CompletableFuture[0])).thenCompose(ignored -> delegate.flush());
+    }
+
+    /**
+     * Stops flushing and closes the underlying database. Writes that did not reach the database by now have their futures failed.
+     *
+     * @param deadline When to stop waiting for the underlying database, in epoch milliseconds
+     * @return A future which completes once the underlying database is closed
+     */
+    @Override
+    public CompletableFuture<Void> close(long deadline) {
+        flusher.shutdownNow();
+
+        IllegalStateException closed = new IllegalStateException("The write-behind layer was closed before the write reached the database");
+
+        pendingIslands.values().forEach(pending -> pending.future.completeExceptionally(closed));
+        pendingProfiles.values().forEach(pending -> pending.future.completeExceptionally(closed));
+        flushingIslands.values().forEach(pending -> pending.future.completeExceptionally(closed));
+        flushingProfiles.values().forEach(pending -> pending.future.completeExceptionally(closed));
+
+        return delegate.close(deadline);
+    }
+
+    @Override
+    public boolean isFileBased() {
+        return delegate.isFileBased();
+    }
+
+    /**
+     * Gets the amount of writes waiting to be flushed
+     *
+     * @return The queue size
+     */
+    public int getQueueSize() {
+        return pendingIslands.size() + pendingProfiles.size();
+    }
+
+    /**
+     * Gets how long the oldest queued write has been waiting, in milliseconds
+     *
+     * @return The current lag, 0 if the queue is empty
+     */
+    public long getCurrentLagMillis() {
+        long oldest = Long.MAX_VALUE;
+
+        for (PendingWrite<?> pending : pendingIslands.values()) {
+            oldest = Math.min(oldest, pending.queuedAt);
+        }
+
+        for (PendingWrite<?> pending : pendingProfiles.values()) {
+            oldest = Math.min(oldest, pending.queuedAt);
+        }
+
+        return oldest == Long.MAX_VALUE ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest);
+    }
+
+    /**
+     * Gets how long writes waited between being queued and reaching the database
+     *
+     * @return The lag histogram
+     */
+    public LatencyHistogram getLag() {
+        return lag;
+    }
+
+    /**
+     * Gets the amount of writes queued, including the ones that were coalesced
+     *
+     * @return The queued writes
+     */
+    public long getQueuedWrites() {
+        return queuedWrites.sum();
+    }
+
+    /**
+     * Gets the amount of writes that actually reached the database
+     *
+     * @return The flushed writes
+     */
+    public long getFlushedWrites() {
+        return flushedWrites.sum();
+    }
+
+    /**
+     * Gets the amount of writes the database rejected, which were queued again
+     *
+     * @return The retried writes
+     */
+    public long getRetriedWrites() {
+        return retriedWrites.sum();
+    }
+
+    /**
+     * Gets the amount of writes that were dropped after being rejected too many times
+     *
+     * @return The dropped writes
+     */
+    public long getDroppedWrites() {
+        return droppedWrites.sum();
+    }
+
+    /**
+     * Gets the database this layer writes to
+     *
+     * @return The underlying database
+     */
+    public SkyblockFetchingDatabase getDelegate() {
+        return delegate;
+    }
+
+    private <T> CompletableFuture<Void> queue(Map<UUID, PendingWrite<T>> pending, UUID key, T value) {
+        queuedWrites.increment();
+
+        // Coalescing keeps the original future and queue time, so the lag covers the whole time the key was dirty
+        PendingWrite<T> write = pending.compute(key, (ignored, existing) -> existing == null ? new PendingWrite<>(value) : existing.replace(value));
+
+        if (getQueueSize() >= maxBatchSize && flushScheduled.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushScheduled.set(false);
+                flushQueued();
+            });
+        }
+
+        return write.future;
+    }
+
+    // Returns the amount of writes sent
+    private int flushQueued() {
+        try {
+            List<CompletableFuture<?>> writes = new ArrayList<>();
+
+            List<IslandData> saves = new ArrayList<>();
+
+            for (UUID islandId : takeBatch(pendingIslands)) {
+                PendingWrite<IslandData> pending = take(pendingIslands, flushingIslands, islandId);
+
+                if (pending == null) {
+                    continue;
+                }
+
+                if (pending.value == null) {
+                    writes.add(complete(pendingIslands, flushingIslands, islandId, pending, delegate.deleteIslandData(islandId)));
+                } else {
+                    saves.add(pending.value);
+                }
+            }
+
+            if (!saves.isEmpty()) {
+                CompletableFuture<Void> bulkSave = delegate.saveIslandData(saves);
+
+                for (IslandData data : saves) {
+                    writes.add(complete(pendingIslands, flushingIslands, data.getIslandId(), flushingIslands.get(data.getIslandId()), bulkSave));
+                }
+            }
+
+            for (UUID playerId : takeBatch(pendingProfiles)) {
+                PendingWrite<UUID> pending = take(pendingProfiles, flushingProfiles, playerId);
+
+                if (pending != null) {
+                    writes.add(complete(pendingProfiles, flushingProfiles, playerId, pending, delegate.setProfileId(playerId, pending.value)));
+                }
+            }
+
+            // Waiting here keeps the next flush from starting before this one is written
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).exceptionally(ignored -> null).join();
+            return writes.size();
+        } catch (Exception ex) { // Never let an exception cancel the periodic flush
+            logger.log(Level.SEVERE, "Failed to flush the write-behind queue of " + delegate.getName(), ex);
+            return 0;
+        }
+    }
+
+    private <T> List<UUID> takeBatch(Map<UUID, PendingWrite<T>> pending) {
+        List<UUID> batch = new ArrayList<>();
+        long now = System.nanoTime();
+
+        for (Map.Entry<UUID, PendingWrite<T>> entry : pending.entrySet()) {
+            if (batch.size() >= maxBatchSize) {
+                break;
+            }
+
+            if (entry.getValue().retryAt - now <= 0) { // Skips failed writes until their retry is due
+                batch.add(entry.getKey());
+            }
+        }
+
+        return batch;
+    }
+
+    private <T> PendingWrite<T> take(Map<UUID, PendingWrite<T>> pending, Map<UUID, PendingWrite<T>> flushing, UUID key) {
+        PendingWrite<T> write = pending.get(key);
+
+        if (write == null) {
+            return null;
+        }
+
+        // Published as flushing before leaving the queue, so a read in between can't miss it
+        flushing.put(key, write);
+        pending.remove(key, write);
+        return write;
+    }
+
+    private <T> CompletableFuture<Void> complete(Map<UUID, PendingWrite<T>> queue, Map<UUID, PendingWrite<T>> flushing, UUID key, PendingWrite<T> pending,
+        CompletableFuture<Void> write) {
+        return write.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                retry(queue, flushing, key, pending, throwable);
+                return;
+            }
+
+            flushing.remove(key, pending);
+            lag.recordSince(pending.queuedAt);
+            flushedWrites.increment();
+            pending.future.complete(null);
+        });
+    }
+
+    private <T> void retry(Map<UUID, PendingWrite<T>> queue, Map<UUID, PendingWrite<T>> flushing, UUID key, PendingWrite<T> pending, Throwable error) {
+        if (pending.attempts + 1 >= maxAttempts) {
+            PendingWrite<T> newer = queue.get(key);
+            flushing.remove(key, pending);
+
+            if (newer != null) { // The newer write gets its own attempts
+                follow(pending, newer);
+                return;
+            }
+
+            droppedWrites.increment();
+            logger.log(Level.SEVERE, "Dropped a write to " + key + " on " + delegate.getName() + " after " + maxAttempts + " attempts", error);
+            pending.future.completeExceptionally(error);
+            return;
+        }
+
+        retriedWrites.increment();
+
+        // Doubles the delay on every attempt, starting at one window, up to MAX_RETRY_DELAY_MS
+        long delayMillis = Math.min(MAX_RETRY_DELAY_MS, windowMillis << Math.min(pending.attempts, 16));
+        PendingWrite<T> retry = pending.retry(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+
+        // Back in the queue before leaving the flushing map, so reads never miss it
+        PendingWrite<T> newer = queue.putIfAbsent(key, retry);
+        flushing.remove(key, pending);
+
+        if (newer != null) {
+            follow(pending, newer);
+        }
+    }
+
+    // The newer write replaces the older one, so the older one is done once the newer one is
+    private <T> void follow(PendingWrite<T> older, PendingWrite<T> newer) {
+        newer.future.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                older.future.completeExceptionally(throwable);
+            } else {
+                older.future.complete(null);
+            }
+        });
+    }
+
+    private <T> PendingWrite<T> lookup(Map<UUID, PendingWrite<T>> pending, Map<UUID, PendingWrite<T>> flushing, UUID key) {
+        PendingWrite<T> write = pending.get(key);
+        return write != null ? write : flushing.get(key);
+    }
+
+    private PendingWrite<IslandData> findPendingOwner(UUID profileId) {
+        // The queue only holds about one window's worth of writes, so scanning it is cheap
+        for (PendingWrite<IslandData> pending : pendingIslands.values()) {
+            if (pending.value != null && pending.value.getOwnerId().equals(profileId)) {
+                return pending;
+            }
+        }
+
+        for (PendingWrite<IslandData> pending : flushingIslands.values()) {
+            if (pending.value != null && pending.value.getOwnerId().equals(profileId)) {
+                return pending;
+            }
+        }
+
+        return null;
+    }
+
+    private IslandData applyPendingDeletion(IslandData data) {
+        return data != null && isPendingDeletion(data.getIslandId()) ? null : data;
+    }
+
+    private boolean isPendingDeletion(UUID islandId) {
+        PendingWrite<IslandData> pending = lookup(pendingIslands, flushingIslands, islandId);
+        return pending != null && pending.value == null;
+    }
+
+    private static class PendingWrite<T> {
+
+        private final CompletableFuture<Void> future;
+        private final long queuedAt;
+        private final T value;
+
+        private final int attempts; // Failed attempts so far
+        private final long retryAt; // The write isn't flushed before this, in nanoTime
+
+        private PendingWrite(T value) {
+            this(new CompletableFuture<>(), System.nanoTime(), value, 0, System.nanoTime());
+        }
+
+        private PendingWrite(CompletableFuture<Void> future, long queuedAt, T value, int attempts, long retryAt) {
+            this.future = future;
+            this.queuedAt = queuedAt;
+            this.value = value;
+            this.attempts = attempts;
+            this.retryAt = retryAt;
+        }
+
+        private PendingWrite<T> replace(T value) {
+            return new PendingWrite<>(future, queuedAt, value, attempts, retryAt); // Keeps the backoff, the database is still failing
+        }
+
+        private PendingWrite<T> retry(long retryAt) {
+            return new PendingWrite<>(future, queuedAt, value, attempts + 1, retryAt);
+        }
+    }
+}
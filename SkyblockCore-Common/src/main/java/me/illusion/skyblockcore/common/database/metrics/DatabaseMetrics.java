@@ -0,0 +1,120 @@
+package me.illusion.skyblockcore.common.database.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import me.illusion.skyblockcore.common.utilities.metrics.LatencyHistogram;
+
+/**
+ * Records how long every operation of a database takes, in a histogram per operation, and how often each operation failed. Operations slower than the
+ * threshold, and failed operations, are sent to a {@link SlowOperationLog}.
+ */
+public class DatabaseMetrics {
+
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    private final String database;
+    private final SlowOperationLog log;
+    private final long slowThresholdMicros;
+
+    /**
+     * Creates new metrics for a database
+     *
+     * @param database        The database's name
+     * @param log             The log slow and failed operations go to
+     * @param slowThresholdMs Operations taking longer than this are logged, 0 or less disables slow logging
+     */
+    public DatabaseMetrics(String database, SlowOperationLog log, long slowThresholdMs) {
+        this.database = database;
+        this.log = log;
+        this.slowThresholdMicros = slowThresholdMs <= 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toMicros(slowThresholdMs);
+    }
+
+    /**
+     * Runs an operation, timing it from the call until its future completes
+     *
+     * @param operation The operation's name
+     * @param key       The key the operation is called with, only used for logging
+     * @param call      The operation
+     * @param <T>       The result type
+     * @return The operation's future
+     */
+    public <T> CompletableFuture<T> track(String operation, Object key, Supplier<CompletableFuture<T>> call) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+
+        try {
+            future = call.get();
+        } catch (RuntimeException ex) { // Some databases throw instead of failing the future, e.g. when they are saturated
+            record(operation, key, start, ex);
+            throw ex;
+        }
+
+        future.whenComplete((ignored, throwable) -> record(operation, key, start, throwable));
+        return future;
+    }
+
+    private void record(String operation, Object key, long start, Throwable throwable) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+
+        latencies.computeIfAbsent(operation, ignored -> new LatencyHistogram()).recordMicros(micros);
+
+        if (throwable != null) {
+            failures.computeIfAbsent(operation, ignored -> new LongAdder()).increment();
+            log.failed(database, operation, key, micros, throwable);
+        } else if (micros >= slowThresholdMicros) {
+            log.slow(database, operation, key, micros);
+        }
+    }
+
+    /**
+     * Gets the latency histograms, keyed by operation
+     *
+     * @return The histograms
+     */
+    public Map<String, LatencyHistogram> getLatencies() {
+        return Collections.unmodifiableMap(latencies);
+    }
+
+    /**
+     * Gets the amount of times an operation failed
+     *
+     * @param operation The operation's name
+     * @return The failures
+     */
+    public long getFailures(String operation) {
+        LongAdder adder = failures.get(operation);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Closes the log slow and failed operations go to, this is called once the database is closed
+     */
+    public void close() {
+        log.close();
+    }
+
+    /**
+     * Gets the name of the database these metrics belong to
+     *
+     * @return The name
+     */
+    public String getDatabase() {
+        return database;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(database).append(" metrics:");
+
+        latencies.forEach((operation, histogram) -> builder.append("\n  ").append(operation).append(": ").append(histogram)
+            .append(" failures=").append(getFailures(operation)));
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package me.illusion.skyblockcore.common.database.metrics;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import me.illusion.skyblockcore.common.config.ReadOnlyConfigurationSection;
+import me.illusion.skyblockcore.common.database.cache.SkyblockCacheDatabase;
+
+/**
+ * Wraps a {@link SkyblockCacheDatabase}, recording the latency of every operation in {@link DatabaseMetrics}
+ */
+public class MeteredSkyblockCacheDatabase implements SkyblockCacheDatabase {
+
+    private final SkyblockCacheDatabase delegate;
+    private final DatabaseMetrics metrics;
+
+    public MeteredSkyblockCacheDatabase(SkyblockCacheDatabase delegate, DatabaseMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> enable(ReadOnlyConfigurationSection properties) {
+        return delegate.enable(properties);
+    }
+
+    @Override
+    public CompletableFuture<String> getIslandServer(UUID islandId) {
+        return metrics.track("getIslandServer", islandId, () -> delegate.getIslandServer(islandId));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateIslandServer(UUID islandId, String serverId) {
+        return metrics.track("updateIslandServer", islandId, () -> delegate.updateIslandServer(islandId, serverId));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeIsland(UUID islandId) {
+        return metrics.track("removeIsland", islandId, () -> delegate.removeIsland(islandId));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeServer(String serverId) {
+        return metrics.track("removeServer", serverId, () -> delegate.removeServer(serverId));
+    }
+
+    @Override
+    public CompletableFuture<Void> flush() {
+        return metrics.track("flush", "all", delegate::flush);
+    }
+
+    @Override
+    public CompletableFuture<Void> close(long deadline) {
+        return delegate.close(deadline).whenComplete((ignored, throwable) -> metrics.close()); // After the delegate, closing may still fail an operation
+    }
+
+    /**
+     * Gets the metrics this database records to
+     *
+     * @return The metrics
+     */
+    public DatabaseMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the database this layer wraps
+     *
+     * @return The wrapped database
+     */
+    public SkyblockCacheDatabase getDelegate() {
+        return delegate;
+    }
+}
@@ -0,0 +1,133 @@
+package me.illusion.skyblockcore.common.database.metrics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import me.illusion.skyblockcore.common.config.ReadOnlyConfigurationSection;
+import me.illusion.skyblockcore.common.data.IslandData;
+import me.illusion.skyblockcore.common.database.fetching.SkyblockFetchingDatabase;
+
+/**
+ * Wraps a {@link SkyblockFetchingDatabase}, recording the latency of every operation in {@link DatabaseMetrics}
+ */
+public class MeteredSkyblockFetchingDatabase implements SkyblockFetchingDatabase {
+
+    private final SkyblockFetchingDatabase delegate;
+    private final DatabaseMetrics metrics;
+
+    public MeteredSkyblockFetchingDatabase(SkyblockFetchingDatabase delegate, DatabaseMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> enable(ReadOnlyConfigurationSection properties) {
+        return delegate.enable(properties);
+    }
+
+    @Override
+    public CompletableFuture<UUID> fetchIslandId(UUID profileId) {
+        return metrics.track("fetchIslandId", profileId, () -> delegate.fetchIslandId(profileId));
+    }
+
+    @Override
+    public CompletableFuture<IslandData> fetchIslandData(UUID islandId) {
+        return metrics.track("fetchIslandData", islandId, () -> delegate.fetchIslandData(islandId));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveIslandData(IslandData data) {
+        return metrics.track("saveIslandData", data.getIslandId(), () -> delegate.saveIslandData(data));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteIslandData(UUID islandId) {
+        return metrics.track("deleteIslandData", islandId, () -> delegate.deleteIslandData(islandId));
+    }
+
+    @Override
+    public CompletableFuture<UUID> getProfileId(UUID playerId) {
+        return metrics.track("getProfileId", playerId, () -> delegate.getProfileId(playerId));
+    }
+
+    @Override
+    public CompletableFuture<Void> setProfileId(UUID playerId, UUID profileId) {
+        return metrics.track("setProfileId", playerId, () -> delegate.setProfileId(playerId, profileId));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, IslandData>> fetchIslandData(Collection<UUID> islandIds) {
+        return metrics.track("fetchIslandDataBulk", islandIds.size() + " islands", () -> delegate.fetchIslandData(islandIds));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveIslandData(Collection<IslandData> data) {
+        return metrics.track("saveIslandDataBulk", data.size() + " islands", () -> delegate.saveIslandData(data));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, UUID>> getProfileIds(Collection<UUID> playerIds) {
+        return metrics.track("getProfileIdsBulk", playerIds.size() + " players", () -> delegate.getProfileIds(playerIds));
+    }
+
+    @Override
+    public CompletableFuture<Void> deletePlayerIsland(UUID profileId) {
+        return metrics.track("deletePlayerIsland", profileId, () -> delegate.deletePlayerIsland(profileId));
+    }
+
+    @Override
+    public CompletableFuture<IslandData> fetchPlayerIsland(UUID profileId) {
+        return metrics.track("fetchPlayerIsland", profileId, () -> delegate.fetchPlayerIsland(profileId));
+    }
+
+    @Override
+    public CompletableFuture<Long> forEachIsland(int batchSize, Consumer<List<IslandData>> consumer) {
+        return metrics.track("forEachIsland", "batches of " + batchSize, () -> delegate.forEachIsland(batchSize, consumer));
+    }
+
+    @Override
+    public CompletableFuture<Long> forEachProfile(int batchSize, Consumer<Map<UUID, UUID>> consumer) {
+        return metrics.track("forEachProfile", "batches of " + batchSize, () -> delegate.forEachProfile(batchSize, consumer));
+    }
+
+    @Override
+    public CompletableFuture<Void> flush() {
+        return metrics.track("flush", "all", delegate::flush);
+    }
+
+    @Override
+    public CompletableFuture<Void> close(long deadline) {
+        return delegate.close(deadline).whenComplete((ignored, throwable) -> metrics.close()); // After the delegate, closing may still fail an operation
+    }
+
+    @Override
+    public boolean isFileBased() {
+        return delegate.isFileBased();
+    }
+
+    /**
+     * Gets the metrics this database records to
+     *
+     * @return The metrics
+     */
+    public DatabaseMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the database this layer wraps
+     *
+     * @return The wrapped database
+     */
+    public SkyblockFetchingDatabase getDelegate() {
+        return delegate;
+    }
+}
@@ -0,0 +1,122 @@
+package me.illusion.skyblockcore.common.database.metrics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Logs slow and failed database operations from a background thread. Database callbacks often run on the main thread or on a database executor, and logging
+ * there would hold them up (console output is synchronized, and can be slow), so entries are only queued, and dropped if the queue is full.
+ */
+public class SlowOperationLog {
+
+    private static final int CAPACITY = 1024;
+
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final LongAdder dropped = new LongAdder();
+    private final Logger logger;
+    private final Thread thread;
+
+    /**
+     * Creates a new log, and starts its thread
+     *
+     * @param logger The logger to write to
+     */
+    public SlowOperationLog(Logger logger) {
+        this.logger = logger;
+
+        this.thread = new Thread(this::run, "skyblock-slow-operation-log");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a slow operation, this never blocks
+     *
+     * @param database  The database's name
+     * @param operation The operation
+     * @param key       The key the operation was called with
+     * @param micros    How long the operation took
+     */
+    public void slow(String database, String operation, Object key, long micros) {
+        offer(new Entry(Level.WARNING, String.format("Slow %s operation %s(%s) took %.1fms", database, operation, key, micros / 1000.0), null));
+    }
+
+    /**
+     * Queues a failed operation, this never blocks
+     *
+     * @param database  The database's name
+     * @param operation The operation
+     * @param key       The key the operation was called with
+     * @param micros    How long the operation took before failing
+     * @param error     The error
+     */
+    public void failed(String database, String operation, Object key, long micros, Throwable error) {
+        offer(new Entry(Level.SEVERE, String.format("%s operation %s(%s) failed after %.1fms", database, operation, key, micros / 1000.0), error));
+    }
+
+    /**
+     * Gets the amount of entries dropped because the queue was full
+     *
+     * @return The dropped entries
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stops the log's thread, once it has written the entries queued so far
+     */
+    public void close() {
+        thread.interrupt();
+    }
+
+    private void offer(Entry entry) {
+        if (!queue.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    private void run() {
+        long reported = 0;
+
+        while (true) {
+            try {
+                Entry entry = queue.take();
+                long total = dropped.sum();
+
+                if (total > reported) {
+                    logger.warning((total - reported) + " slow database operations were not logged, the log could not keep up");
+                    reported = total;
+                }
+
+                logger.log(entry.level, entry.message, entry.error);
+            } catch (InterruptedException ex) { // Closed, the last entries are usually the interesting ones on shutdown
+                Entry entry;
+
+                while ((entry = queue.poll()) != null) {
+                    logger.log(entry.level, entry.message, entry.error);
+                }
+
+                return;
+            } catch (Exception ex) { // Never let the log die
+                logger.log(Level.SEVERE, "Failed to log a slow database operation", ex);
+            }
+        }
+    }
+
+    private static class Entry {
+
+        private final Level level;
+        private final String message;
+        private final Throwable error;
+
+        private Entry(Level level, String message, Throwable error) {
+            this.level = level;
+            this.message = message;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package me.illusion.skyblockcore.common.utilities.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram, with logarithmic buckets split into 16 linear sub-buckets each. Values are recorded in microseconds, and percentiles are
+ * accurate to roughly 6% of the recorded value, which is plenty for telling a 2ms query apart from a 200ms one.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a duration
+     *
+     * @param duration The duration
+     * @param unit     The duration's unit
+     */
+    public void record(long duration, TimeUnit unit) {
+        recordMicros(unit.toMicros(duration));
+    }
+
+    /**
+     * Records the time elapsed since a {@link System#nanoTime()} timestamp
+     *
+     * @param startNanos The start timestamp
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a duration, in microseconds
+     *
+     * @param micros The duration
+     */
+    public void recordMicros(long micros) {
+        long value = Math.max(0, micros);
+
+        buckets.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Gets the value at a certain percentile, e.g. 99 for the p99
+     *
+     * @param percentile The percentile, from 0 to 100
+     * @return The value in microseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = count.sum();
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(total * (percentile / 100.0)));
+        long seen = 0;
+
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            seen += buckets.get(index);
+
+            if (seen >= target) {
+                return Math.min(upperBoundOf(index), getMax());
+            }
+        }
+
+        return getMax(); // Values were recorded while we were iterating
+    }
+
+    /**
+     * Gets the amount of recorded values
+     *
+     * @return The count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the mean of all recorded values
+     *
+     * @return The mean in microseconds, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long total = count.sum();
+        return total == 0 ? 0 : sum.sum() / (double) total;
+    }
+
+    /**
+     * Gets the highest recorded value
+     *
+     * @return The max in microseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Clears all recorded values
+     */
+    public void reset() {
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            buckets.set(index, 0);
+        }
+
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.0fus p50=%dus p95=%dus p99=%dus max=%dus", getCount(), getMean(), getPercentile(50), getPercentile(95),
+            getPercentile(99), getMax());
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1));
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKET_COUNT;
+        int shift = exponent - SUB_BUCKET_BITS;
+
+        long lowerBound = (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
@@ -1,5 +1,10 @@
 package me.illusion.skyblockcore.spigot;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
 import lombok.Getter;
 import me.illusion.cosmos.CosmosPlugin;
 import me.illusion.cosmos.utilities.command.command.CommandManager;
@@ -7,8 +12,10 @@ import me.illusion.cosmos.utilities.storage.MessagesFile;
 import me.illusion.skyblockcore.common.database.SkyblockDatabaseRegistry;
 import me.illusion.skyblockcore.common.platform.SkyblockPlatform;
 import me.illusion.skyblockcore.common.profile.SkyblockProfileCache;
+import me.illusion.skyblockcore.spigot.command.ShardRebalanceCommand;
 import me.illusion.skyblockcore.spigot.config.SkyblockCacheDatabasesFile;
 import me.illusion.skyblockcore.spigot.config.SkyblockDatabasesFile;
+import me.illusion.skyblockcore.spigot.config.SkyblockIslandSettingsFile;
 import me.illusion.skyblockcore.spigot.config.cosmos.SkyblockCosmosSetupFile;
 import me.illusion.skyblockcore.spigot.cosmos.SkyblockCosmosSetup;
 import me.illusion.skyblockcore.spigot.event.startup.SkyblockEnabledEvent;
@@ -37,6 +44,7 @@ public class SkyblockSpigotPlugin extends JavaPlugin implements SkyblockPlatform
 
     private SkyblockDatabasesFile databasesFile;
     private SkyblockCacheDatabasesFile cacheDatabasesFile;
+    private SkyblockIslandSettingsFile islandSettingsFile;
 
     private SkyblockDatabaseRegistry databaseRegistry;
 
@@ -57,9 +65,9 @@ public class SkyblockSpigotPlugin extends JavaPlugin implements SkyblockPlatform
         cacheDatabasesFile = new SkyblockCacheDatabasesFile(this);
         databaseRegistry = new SkyblockDatabaseRegistry(this);
 
-        gridRegistry = new SkyblockGridRegistry();
+        islandSettingsFile = new SkyblockIslandSettingsFile(this);
 
-        islandManager = new IslandManager(this);
+        gridRegistry = new SkyblockGridRegistry();
 
         registerNetworks();
 
@@ -74,11 +82,32 @@ public class SkyblockSpigotPlugin extends JavaPlugin implements SkyblockPlatform
             network.disable();
         }
 
-        islandManager.disable(true, false).join();
-        islandManager.flush().join();
+        long deadline = System.currentTimeMillis() + islandSettingsFile.getShutdownDeadlineMillis(); // Shared by the islands and the databases
+
+        if (islandManager != null) { // The island manager is only created once the databases are enabled, it flushes the chosen database itself
+            islandManager.shutdown(deadline, islandSettingsFile.getShutdownBatchSize());
+        }
+
+        awaitUntil(CompletableFuture.allOf(databaseRegistry.getChosenDatabase().flush(), databaseRegistry.getChosenCacheDatabase().flush()), deadline);
+
+        // Closed even if the flush timed out, the server is going down either way. Closing doesn't wait past the deadline
+        CompletableFuture<Void> closed = databaseRegistry.getChosenDatabase().close(deadline);
+        CompletableFuture<Void> cacheClosed = databaseRegistry.getChosenCacheDatabase().close(deadline);
 
-        databaseRegistry.getChosenDatabase().flush().join();
-        databaseRegistry.getChosenCacheDatabase().flush().join();
+        CompletableFuture.allOf(closed, cacheClosed).exceptionally(error -> {
+            getLogger().log(Level.WARNING, "Failed to close the databases", error);
+            return null;
+        });
+    }
+
+    private void awaitUntil(CompletableFuture<?> future, long deadline) {
+        try {
+            future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ex) {
+            getLogger().log(Level.WARNING, "The databases could not be flushed before the shutdown deadline, some writes may be lost", ex);
+        }
     }
 
     private void finishLoading() {
@@ -89,8 +118,12 @@ public class SkyblockSpigotPlugin extends JavaPlugin implements SkyblockPlatform
             if (!success) {
                 getLogger().severe("Failed to enable databases, disabling plugin...");
                 Bukkit.getPluginManager().disablePlugin(this);
+                return;
             }
 
+            islandManager = new IslandManager(this); // Needs both cosmos and the chosen database, so it can only be created here
+            commandManager.registerCommand(new ShardRebalanceCommand(this)); // Needs the chosen database
+
             networkRegistry.enable();
             Bukkit.getPluginManager().callEvent(new SkyblockEnabledEvent(this));
         });
@@ -0,0 +1,95 @@
+package me.illusion.skyblockcore.spigot.command;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import me.illusion.cosmos.utilities.command.command.impl.AdvancedCommand;
+import me.illusion.cosmos.utilities.command.command.impl.ExecutionContext;
+import me.illusion.skyblockcore.common.database.fetching.SkyblockFetchingDatabase;
+import me.illusion.skyblockcore.common.database.fetching.sharded.ShardRebalancer;
+import me.illusion.skyblockcore.common.database.fetching.sharded.ShardedSkyblockDatabase;
+import me.illusion.skyblockcore.common.database.fetching.writebehind.WriteBehindSkyblockDatabase;
+import me.illusion.skyblockcore.common.database.metrics.MeteredSkyblockFetchingDatabase;
+import me.illusion.skyblockcore.spigot.SkyblockSpigotPlugin;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.ConsoleCommandSender;
+
+/**
+ * This is the console-only /rebalanceshards command, which moves islands and profile ids to their shards after shards were added to the sharded database.
+ * Progress is written to the log, as a rebalance can take a while.
+ */
+public class ShardRebalanceCommand extends AdvancedCommand {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final SkyblockSpigotPlugin plugin;
+    private final Logger logger;
+
+    public ShardRebalanceCommand(SkyblockSpigotPlugin plugin) {
+        super("rebalanceshards");
+
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+    }
+
+    @Override
+    public boolean canExecute(CommandSender sender) {
+        return sender instanceof ConsoleCommandSender;
+    }
+
+    @Override
+    public void execute(CommandSender sender, ExecutionContext context) {
+        ShardedSkyblockDatabase database = findSharded(plugin.getDatabaseRegistry().getChosenDatabase());
+
+        if (database == null) {
+            sender.sendMessage("The chosen database is not sharded, there is nothing to rebalance.");
+            return;
+        }
+
+        if (database.getPreviousRing() == null) {
+            sender.sendMessage("No previous-shards are configured, there is nothing to rebalance.");
+            return;
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            sender.sendMessage("A rebalance is already running.");
+            return;
+        }
+
+        ShardRebalancer rebalancer = new ShardRebalancer(database);
+        logger.info("Rebalancing the shards, moving islands first..");
+
+        rebalancer.rebalanceIslands(BATCH_SIZE).thenCompose(islands -> {
+            logger.info("Moved " + islands + " islands, moving profile ids..");
+            return rebalancer.rebalanceProfiles(BATCH_SIZE);
+        }).whenComplete((profiles, error) -> {
+            running.set(false);
+
+            if (error != null) {
+                logger.log(Level.SEVERE, "Failed to rebalance the shards, it is safe to run the rebalance again", error);
+                return;
+            }
+
+            logger.info("Moved " + profiles + " profile ids. The rebalance is done, previous-shards can now be removed from database.yml.");
+        });
+    }
+
+    // The chosen database may be decorated, the rebalancer needs the sharded database itself
+    private ShardedSkyblockDatabase findSharded(SkyblockFetchingDatabase database) {
+        while (true) {
+            if (database instanceof ShardedSkyblockDatabase sharded) {
+                return sharded;
+            }
+
+            if (database instanceof WriteBehindSkyblockDatabase writeBehind) {
+                database = writeBehind.getDelegate();
+            } else if (database instanceof MeteredSkyblockFetchingDatabase metered) {
+                database = metered.getDelegate();
+            } else {
+                return null;
+            }
+        }
+    }
+}
@@ -4,6 +4,9 @@ import me.illusion.cosmos.utilities.storage.YMLBase;
 import me.illusion.skyblockcore.common.config.ReadOnlyConfigurationSection;
 import me.illusion.skyblockcore.common.database.cache.SkyblockCacheDatabase;
 import me.illusion.skyblockcore.common.database.cache.SkyblockCacheDatabaseSetup;
+import me.illusion.skyblockcore.common.database.metrics.DatabaseMetrics;
+import me.illusion.skyblockcore.common.database.metrics.MeteredSkyblockCacheDatabase;
+import me.illusion.skyblockcore.common.database.metrics.SlowOperationLog;
 import me.illusion.skyblockcore.spigot.utilities.config.BukkitConfigurationAdapter;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -11,8 +14,11 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 public class SkyblockCacheDatabasesFile extends YMLBase implements SkyblockCacheDatabaseSetup {
 
+    private final JavaPlugin plugin;
+
     public SkyblockCacheDatabasesFile(JavaPlugin plugin) {
         super(plugin, "cache-database.yml");
+        this.plugin = plugin;
     }
 
     @Override
@@ -53,4 +59,18 @@ public class SkyblockCacheDatabasesFile extends YMLBase implements SkyblockCache
     public Class<SkyblockCacheDatabase> getDatabaseClass() {
         return SkyblockCacheDatabase.class;
     }
+
+    @Override
+    public SkyblockCacheDatabase decorate(SkyblockCacheDatabase database) {
+        FileConfiguration config = getConfiguration();
+
+        if (!config.getBoolean("metrics.enabled", true)) {
+            return database;
+        }
+
+        SlowOperationLog log = new SlowOperationLog(plugin.getLogger());
+        DatabaseMetrics metrics = new DatabaseMetrics(database.getName(), log, config.getLong("metrics.slow-operation-ms", 50));
+
+        return new MeteredSkyblockCacheDatabase(database, metrics);
+    }
 }
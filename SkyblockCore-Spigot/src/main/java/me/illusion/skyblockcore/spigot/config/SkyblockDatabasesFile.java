@@ -4,6 +4,10 @@ import me.illusion.cosmos.utilities.storage.YMLBase;
 import me.illusion.skyblockcore.common.config.ReadOnlyConfigurationSection;
 import me.illusion.skyblockcore.common.database.fetching.SkyblockFetchingDatabase;
 import me.illusion.skyblockcore.common.database.fetching.SkyblockFetchingDatabaseSetup;
+import me.illusion.skyblockcore.common.database.fetching.writebehind.WriteBehindSkyblockDatabase;
+import me.illusion.skyblockcore.common.database.metrics.DatabaseMetrics;
+import me.illusion.skyblockcore.common.database.metrics.MeteredSkyblockFetchingDatabase;
+import me.illusion.skyblockcore.common.database.metrics.SlowOperationLog;
 import me.illusion.skyblockcore.spigot.utilities.config.BukkitConfigurationAdapter;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
@@ -11,10 +15,12 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 public class SkyblockDatabasesFile extends YMLBase implements SkyblockFetchingDatabaseSetup {
 
+    private final JavaPlugin plugin;
     private boolean supportsFileBased = true;
 
     public SkyblockDatabasesFile(JavaPlugin plugin) {
         super(plugin, "database.yml");
+        this.plugin = plugin;
     }
 
     @Override
@@ -56,6 +62,26 @@ public class SkyblockDatabasesFile extends YMLBase implements SkyblockFetchingDa
         return SkyblockFetchingDatabase.class;
     }
 
+    @Override
+    public SkyblockFetchingDatabase decorate(SkyblockFetchingDatabase database) {
+        FileConfiguration config = getConfiguration();
+
+        // Metered first, so the latencies are the backend's and not the write-behind queue's
+        if (config.getBoolean("metrics.enabled", true)) {
+            SlowOperationLog log = new SlowOperationLog(plugin.getLogger());
+            DatabaseMetrics metrics = new DatabaseMetrics(database.getName(), log, config.getLong("metrics.slow-operation-ms", 250));
+
+            database = new MeteredSkyblockFetchingDatabase(database, metrics);
+        }
+
+        if (!config.getBoolean("write-behind.enabled", false)) {
+            return database;
+        }
+
+        return new WriteBehindSkyblockDatabase(database, plugin.getLogger(), config.getLong("write-behind.window-ms", 1000),
+            config.getInt("write-behind.max-batch-size", 500), config.getInt("write-behind.max-attempts", 10));
+    }
+
     @Override
     public boolean supportsFileBased() {
         return supportsFileBased;
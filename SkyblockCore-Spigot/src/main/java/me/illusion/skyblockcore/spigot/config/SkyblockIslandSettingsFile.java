@@ -0,0 +1,60 @@
+package me.illusion.skyblockcore.spigot.config;
+
+import lombok.Getter;
+import me.illusion.cosmos.utilities.storage.YMLBase;
+import me.illusion.skyblockcore.spigot.utilities.time.TimeParser;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * This class is responsible for loading the island-settings.yml file, which controls how islands are loaded and unloaded on this instance.
+ */
+@Getter
+public class SkyblockIslandSettingsFile extends YMLBase {
+
+    private final int maxConcurrentLoads;
+    private final long pasteTickBudgetMillis;
+
+    private final int templateCacheMaxTemplates;
+    private final boolean templateCacheRefreshOnSave;
+
+    private final int warmPoolMaxIslands;
+    private final double warmPoolMaxHeapUsage;
+    private final long warmPoolMaxIdleMillis;
+    private final long warmPoolCheckIntervalMillis;
+
+    private final long shutdownDeadlineMillis;
+    private final int shutdownBatchSize;
+
+    private final int warmStartMaxIslands;
+    private final long warmStartMaxAgeMillis;
+
+    private final String creationPoolTemplate;
+    private final int creationPoolSize;
+
+    public SkyblockIslandSettingsFile(JavaPlugin plugin) {
+        super(plugin, "island-settings.yml");
+
+        FileConfiguration configuration = getConfiguration();
+
+        maxConcurrentLoads = configuration.getInt("load-scheduler.max-concurrent-loads", 4);
+        pasteTickBudgetMillis = configuration.getLong("paste-pacing.tick-budget", 10);
+
+        templateCacheMaxTemplates = configuration.getInt("template-cache.max-templates", 500);
+        templateCacheRefreshOnSave = configuration.getBoolean("template-cache.refresh-on-save", true);
+
+        warmPoolMaxIslands = configuration.getInt("warm-pool.max-islands", 100);
+        warmPoolMaxHeapUsage = configuration.getDouble("warm-pool.max-heap-usage", 0.8);
+        warmPoolMaxIdleMillis = TimeParser.parseMillis(configuration.getString("warm-pool.max-idle-time", "10 minutes"));
+        warmPoolCheckIntervalMillis = TimeParser.parseMillis(configuration.getString("warm-pool.check-interval", "5 seconds"));
+
+        shutdownDeadlineMillis = TimeParser.parseMillis(configuration.getString("shutdown.deadline", "30 seconds"));
+        shutdownBatchSize = Math.max(1, configuration.getInt("shutdown.batch-size", 50));
+
+        warmStartMaxIslands = configuration.getInt("warm-start.max-islands", 50);
+        warmStartMaxAgeMillis = TimeParser.parseMillis(configuration.getString("warm-start.max-age", "30 minutes"));
+
+        creationPoolTemplate = configuration.getString("creation-pool.template", "default");
+        creationPoolSize = configuration.getInt("creation-pool.size", 5);
+    }
+}
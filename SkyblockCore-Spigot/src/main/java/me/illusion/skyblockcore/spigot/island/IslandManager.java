@@ -1,21 +1,48 @@
 package me.illusion.skyblockcore.spigot.island;
 
 import com.google.common.collect.Sets;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import me.illusion.cosmos.session.CosmosSession;
 import me.illusion.cosmos.template.TemplatedArea;
-import me.illusion.cosmos.utilities.time.Time;
+import me.illusion.cosmos.utilities.concurrency.MainThreadExecutor;
 import me.illusion.skyblockcore.common.data.IslandData;
 import me.illusion.skyblockcore.common.database.fetching.SkyblockFetchingDatabase;
-import me.illusion.skyblockcore.common.profile.SkyblockProfileCache;
+import me.illusion.skyblockcore.common.database.fetching.writebehind.WriteBehindSkyblockDatabase;
 import me.illusion.skyblockcore.spigot.SkyblockSpigotPlugin;
+import me.illusion.skyblockcore.spigot.config.SkyblockIslandSettingsFile;
 import me.illusion.skyblockcore.spigot.cosmos.SkyblockCosmosSetup;
 import me.illusion.skyblockcore.spigot.event.island.SkyblockIslandLoadEvent;
 import me.illusion.skyblockcore.spigot.event.island.SkyblockIslandUnloadEvent;
+import me.illusion.skyblockcore.spigot.island.load.IslandLoadPriority;
+import me.illusion.skyblockcore.spigot.island.load.IslandLoadScheduler;
+import me.illusion.skyblockcore.spigot.island.load.IslandLoadStage;
+import me.illusion.skyblockcore.spigot.island.load.IslandLoadTracer;
+import me.illusion.skyblockcore.spigot.island.load.IslandPastePacer;
+import me.illusion.skyblockcore.spigot.island.pool.IslandCreationPool;
+import me.illusion.skyblockcore.spigot.island.pool.IslandWarmPool;
+import me.illusion.skyblockcore.spigot.island.pool.IslandWarmStartManifest;
+import me.illusion.skyblockcore.spigot.island.report.IslandMissedSaveReport;
+import me.illusion.skyblockcore.spigot.island.state.IslandHandle;
+import me.illusion.skyblockcore.spigot.island.state.IslandState;
+import me.illusion.skyblockcore.spigot.island.template.IslandTemplateCache;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
@@ -24,21 +51,59 @@ import org.bukkit.entity.Player;
  */
 public class IslandManager {
 
-    private final Map<UUID, Island> loadedIslands = new ConcurrentHashMap<>();
-    private final Set<UUID> unloadingIslands = Sets.newConcurrentHashSet();
+    private final Map<UUID, IslandHandle> islands = new ConcurrentHashMap<>(); // Island ID -> lifecycle handle, from the moment the island starts loading
+    private final Map<UUID, Island> profileIslands = new ConcurrentHashMap<>(); // Profile ID -> Island, secondary index over the loaded islands
 
     private final Set<CompletableFuture<?>> pending = Sets.newConcurrentHashSet();
 
+    // In-flight profile lookups, so concurrent callers share a single pipeline. Loads by island id are shared through the island handles instead.
+    private final Map<UUID, CompletableFuture<Island>> loadingProfiles = new ConcurrentHashMap<>(); // Profile ID -> load
+    private final Map<UUID, CompletableFuture<Island>> creatingProfiles = new ConcurrentHashMap<>(); // Profile ID -> creation
+    private final LongAdder coalescedLoads = new LongAdder();
+
+    private final SkyblockSpigotPlugin plugin;
     private final SkyblockCosmosSetup cosmosSetup;
     private final SkyblockFetchingDatabase database;
-    private final SkyblockProfileCache profileCache;
+    private final IslandLoadScheduler loadScheduler;
+    private final IslandPastePacer pastePacer;
+    private final IslandWarmPool warmPool;
+    private final IslandCreationPool creationPool;
+    private final IslandTemplateCache templateCache;
+    private final boolean refreshTemplatesOnSave;
+    private final IslandLoadTracer loadTracer = new IslandLoadTracer();
+    private final IslandMissedSaveReport missedSaveReport;
+    private final IslandWarmStartManifest warmStartManifest;
 
     public IslandManager(SkyblockSpigotPlugin plugin) {
+        this.plugin = plugin;
         this.cosmosSetup = plugin.getCosmosSetup();
         this.database = plugin.getDatabaseRegistry().getChosenDatabase();
-        this.profileCache = plugin.getProfileCache();
+        this.missedSaveReport = new IslandMissedSaveReport(plugin.getDataFolder());
+        this.warmStartManifest = new IslandWarmStartManifest(plugin.getDataFolder());
+
+        SkyblockIslandSettingsFile settings = plugin.getIslandSettingsFile();
+
+        this.loadScheduler = new IslandLoadScheduler(settings.getMaxConcurrentLoads());
+        this.pastePacer = new IslandPastePacer(settings.getPasteTickBudgetMillis());
+        this.templateCache = new IslandTemplateCache(settings.getTemplateCacheMaxTemplates());
+        this.refreshTemplatesOnSave = settings.isTemplateCacheRefreshOnSave();
+        this.warmPool = new IslandWarmPool(settings.getWarmPoolMaxIslands(), settings.getWarmPoolMaxHeapUsage(), settings.getWarmPoolMaxIdleMillis(),
+            this::unloadIdleIsland);
+
+        this.creationPool = new IslandCreationPool(cosmosSetup, loadScheduler, pastePacer, plugin.getLogger(), settings.getCreationPoolTemplate(),
+            settings.getCreationPoolSize());
+
+        Bukkit.getScheduler().runTaskTimer(plugin, pastePacer::tick, 1, 1);
+
+        // Evicted islands are unloaded inline, so the check stays on the main thread
+        long checkTicks = Math.max(1, settings.getWarmPoolCheckIntervalMillis() / 50);
+        Bukkit.getScheduler().runTaskTimer(plugin, warmPool::check, checkTicks, checkTicks);
 
         new IllegalIslandUnloadCatcher(plugin).register(); // This is a listener that catches when an island is unloaded illegally, through Cosmos directly.
+
+        warnMissedSaves();
+        prewarm(settings.getWarmStartMaxIslands(), settings.getWarmStartMaxAgeMillis());
+        creationPool.refill();
     }
 
     /**
@@ -48,28 +113,53 @@ public class IslandManager {
      * @return The loaded island
      */
     public CompletableFuture<Island> loadIsland(IslandData data) {
+        return loadIsland(data, IslandLoadPriority.VISITOR);
+    }
+
+    /**
+     * Loads an island from IslandData
+     *
+     * @param data     The data of the island
+     * @param priority The priority of the load, if it has to be queued
+     * @return The loaded island
+     */
+    public CompletableFuture<Island> loadIsland(IslandData data, IslandLoadPriority priority) {
+        return acquire(data.getIslandId(), handle -> loadIslandInternal(handle, data, priority));
+    }
+
+    /**
+     * Loads an island from IslandData, once its handle has been claimed
+     *
+     * @param handle   The island's handle
+     * @param data     The data of the island
+     * @param priority The priority of the load
+     * @return The loaded island
+     */
+    private CompletableFuture<Island> loadIslandInternal(IslandHandle handle, IslandData data, IslandLoadPriority priority) {
         UUID islandId = data.getIslandId();
+        String id = islandId.toString();
 
-        Island cached = getLoadedIsland(islandId);
+        long lookupStart = System.nanoTime();
+        TemplatedArea cachedArea = templateCache.get(islandId);
 
-        if (cached != null) { // Idiots
-            return CompletableFuture.completedFuture(cached);
+        if (cachedArea == null) {
+            cachedArea = cosmosSetup.getTemplateCache().get(id);
         }
 
-        String id = islandId.toString();
-
-        TemplatedArea cachedArea = cosmosSetup.getTemplateCache().get(id);
+        loadTracer.record(IslandLoadStage.TEMPLATE_CACHE, lookupStart);
+        loadTracer.recordTemplateLookup(cachedArea != null);
 
         if (cachedArea != null) {
-            return register(loadFromTemplate(islandId, data, cachedArea));
+            return register(loadFromTemplate(handle, data, cachedArea, priority));
         }
 
-        return register(cosmosSetup.getIslandContainer().fetchTemplate(id).thenCompose(template -> {
+        return register(loadTracer.trace(IslandLoadStage.FETCH_TEMPLATE, () -> cosmosSetup.getIslandContainer().fetchTemplate(id)).thenCompose(template -> {
             if (template == null) {
                 throw new IllegalStateException("Template not found, database is corrupted!");
             }
 
-            return loadFromTemplate(islandId, data, template);
+            templateCache.put(islandId, template);
+            return loadFromTemplate(handle, data, template, priority);
         }));
     }
 
@@ -81,17 +171,21 @@ public class IslandManager {
     public CompletableFuture<Island> loadPlayerIsland(UUID profileId, String fallback) {
         Island cached = getProfileIsland(profileId);
 
-        if (cached != null) { // Idiots
-            return CompletableFuture.completedFuture(cached);
+        if (cached != null) { // Idiots, though the island may be waiting to unload, so it still goes through its handle
+            return loadIsland(cached.getData(), IslandLoadPriority.OWNER_ONLINE);
         }
 
-        return register(database.fetchPlayerIsland(profileId).thenCompose(id -> {
-            if (id == null) {
-                return createIsland(fallback, profileId);
-            }
+        return coalesce(loadingProfiles, profileId, () -> {
+            CompletableFuture<IslandData> lookup = loadTracer.trace(IslandLoadStage.PROFILE_LOOKUP, () -> database.fetchPlayerIsland(profileId));
 
-            return loadIsland(id);
-        }));
+            return lookup.thenCompose(data -> {
+                if (data == null) {
+                    return createIsland(fallback, profileId);
+                }
+
+                return loadIsland(data, IslandLoadPriority.OWNER_ONLINE);
+            });
+        });
     }
 
     /**
@@ -101,6 +195,34 @@ public class IslandManager {
      * @return The loaded island
      */
     public CompletableFuture<Island> createIsland(String template, UUID profileId) {
+        return coalesce(creatingProfiles, profileId, () -> createIslandInternal(template, profileId));
+    }
+
+    /**
+     * Creates an island from a template, without checking for in-flight creations
+     *
+     * @param template  The template
+     * @param profileId The owner's profile id
+     * @return The created island
+     */
+    private CompletableFuture<Island> createIslandInternal(String template, UUID profileId) {
+        CosmosSession pooled = creationPool.take(template);
+
+        if (pooled != null) { // Already pasted, so all that's left is binding the data to it
+            UUID islandId = pooled.getUuid();
+            IslandData data = new IslandData(islandId, profileId);
+
+            // The save completes on a database thread, while binding fires the load event and unloading goes through cosmos, both of which need the main thread
+            return acquire(islandId, handle -> saveCreatedIsland(data).handleAsync((irrelevant, error) -> {
+                if (error != null) { // The session doesn't belong to anyone, so don't leave it pasted
+                    cosmosSetup.getSessionHolder().unloadSession(islandId, false, true);
+                    throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+                }
+
+                return bind(handle, data, pooled, IslandLoadPriority.OWNER_ONLINE);
+            }, MainThreadExecutor.INSTANCE));
+        }
+
         TemplatedArea cachedArea = cosmosSetup.getTemplateCache().get(template);
 
         if (cachedArea == null) {
@@ -110,7 +232,20 @@ public class IslandManager {
         UUID islandId = UUID.randomUUID();
         IslandData data = new IslandData(islandId, profileId);
 
-        return register(database.saveIslandData(data).thenCompose(irrelevant -> loadFromTemplate(islandId, data, cachedArea)));
+        return acquire(islandId, handle -> saveCreatedIsland(data).thenCompose(
+            irrelevant -> loadFromTemplate(handle, data, cachedArea, IslandLoadPriority.OWNER_ONLINE))); // Only the owner can create an island
+    }
+
+    /**
+     * Saves a newly created island straight to the database, skipping the write-behind queue if there is one. The owner is waiting for the island, and the
+     * queue would hold the save back for a whole window first.
+     *
+     * @param data The island's data
+     * @return A future which completes once the island is saved
+     */
+    private CompletableFuture<Void> saveCreatedIsland(IslandData data) {
+        SkyblockFetchingDatabase target = database instanceof WriteBehindSkyblockDatabase writeBehind ? writeBehind.getDelegate() : database;
+        return target.saveIslandData(data);
     }
 
     /**
@@ -137,28 +272,43 @@ public class IslandManager {
      * @return A future
      */
     public CompletableFuture<Void> forceUnloadIsland(UUID islandId, boolean save) {
-        unloadingIslands.add(islandId);
-        return register(cosmosSetup.getSessionHolder().unloadSession(islandId, save, true).thenRun(() -> removeInternal(islandId)));
+        while (true) {
+            IslandHandle handle = islands.get(islandId);
+
+            if (handle == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            switch (handle.getState()) {
+                case LOADING -> { // Let the load finish first, otherwise we'd unload a session that is still being pasted
+                    return register(handle.getLoadFuture().handle((island, error) -> null).thenCompose(irrelevant -> forceUnloadIsland(islandId, save)));
+                }
+                case UNLOADING -> {
+                    return handle.getUnloadFuture();
+                }
+                default -> {
+                    if (beginUnload(handle)) {
+                        return unload(handle, save, true);
+                    }
+                    // Someone else changed the state first, try again
+                }
+            }
+        }
     }
 
     /**
-     * Requests to unload an island after a certain delay. If the island is requested to be loaded before the delay is over, the request is cancelled.
+     * Releases an island into the warm pool, meaning nobody needs it anymore. The island stays loaded until the pool runs out of budget, or the island has
+     * been idle for too long. Loading the island again takes it back out of the pool.
      *
-     * @param islandId    The island's id
-     * @param save        Whether or not to save the island
-     * @param unloadDelay The delay
-     * @return A future
+     * @param islandId The island's id
      */
-    public CompletableFuture<Boolean> requestUnloadIsland(UUID islandId, boolean save, Time unloadDelay) {
-        unloadingIslands.add(islandId);
-        return register(cosmosSetup.getSessionHolder().unloadAutomaticallyIn(unloadDelay, islandId, save).thenApply(unloaded -> {
-            if (unloaded) {
-                removeInternal(islandId);
-            }
+    public void releaseIsland(UUID islandId) {
+        IslandHandle handle = islands.get(islandId);
 
-            unloadingIslands.remove(islandId);
-            return unloaded;
-        }));
+        if (handle != null && handle.transition(IslandState.LOADED, IslandState.UNLOAD_SCHEDULED)) {
+            handle.touch();
+            warmPool.release(islandId);
+        }
     }
 
     /**
@@ -168,55 +318,463 @@ public class IslandManager {
      * @return A future
      */
     public CompletableFuture<Island> loadIsland(UUID islandId) {
-        return register(database.fetchIslandData(islandId).thenCompose(this::loadIsland));
+        return loadIsland(islandId, IslandLoadPriority.VISITOR);
     }
 
     /**
-     * Disables the island manager, unloading all islands
+     * Loads an island
      *
-     * @param save  Whether or not to save the islands
-     * @param async Set this to FALSE if you're disabling the plugin, otherwise set it to TRUE. You can't use the scheduler on shutdown
+     * @param islandId The island's id
+     * @param priority The priority of the load, if it has to be queued
      * @return A future
      */
-    public CompletableFuture<Void> disable(boolean save, boolean async) {
-        // We could save islands here, but at the moment island data isn't modified at all, so it's not necessary.
+    public CompletableFuture<Island> loadIsland(UUID islandId, IslandLoadPriority priority) {
+        return acquire(islandId, handle -> {
+            CompletableFuture<IslandData> fetch = loadTracer.trace(IslandLoadStage.FETCH_DATA, () -> database.fetchIslandData(islandId));
+
+            return fetch.thenCompose(data -> {
+                if (data == null) {
+                    return CompletableFuture.completedFuture(null);
+                }
+
+                return loadIslandInternal(handle, data, priority);
+            });
+        });
+    }
+
+    /**
+     * Shuts the island manager down, saving and unloading islands in parallel batches until the deadline is reached, then waiting for the database to flush
+     * within the same deadline. Islands whose save did not finish in time are written to the missed save report. This blocks the calling thread, and is meant
+     * to be called when the plugin is disabled.
+     *
+     * @param deadline  The time to stop waiting at, in epoch milliseconds
+     * @param batchSize The amount of islands saved at the same time
+     */
+    public void shutdown(long deadline, int batchSize) {
+        Logger logger = plugin.getLogger();
+        long start = System.currentTimeMillis();
+
+        List<IslandHandle> handles = islands.values().stream().filter(handle -> handle.getIsland() != null).toList(); // Islands still loading were never pasted
+        Map<Island, CompletableFuture<Void>> saves = new LinkedHashMap<>();
+        List<IslandData> missed = new ArrayList<>();
+
+        writeWarmStartManifest(handles);
+        creationPool.close(false); // Pooled sessions don't belong to any island, so there's nothing to save
+
+        logger.info("Saving " + handles.size() + " islands, with a deadline of " + (deadline - start) + "ms...");
+
+        for (int batchStart = 0; batchStart < handles.size(); batchStart += batchSize) {
+            if (System.currentTimeMillis() >= deadline) {
+                handles.subList(batchStart, handles.size()).forEach(handle -> missed.add(handle.getIsland().getData()));
+                break;
+            }
+
+            List<CompletableFuture<Void>> batch = new ArrayList<>();
+
+            for (IslandHandle handle : handles.subList(batchStart, Math.min(batchStart + batchSize, handles.size()))) {
+                if (System.currentTimeMillis() >= deadline) { // Cosmos may save synchronously on shutdown, so check before starting every island
+                    missed.add(handle.getIsland().getData());
+                    continue;
+                }
+
+                CompletableFuture<Void> save = saveAndUnload(handle);
+
+                saves.put(handle.getIsland(), save);
+                batch.add(save);
+            }
+
+            awaitUntil(CompletableFuture.allOf(batch.toArray(new CompletableFuture[0])), deadline);
 
-        return register(cosmosSetup.getSessionHolder().unloadAll(save, async));
+            long saved = saves.values().stream().filter(IslandManager::isDone).count();
+            logger.info(String.format("Saved %d/%d islands (%dms elapsed)", saved, handles.size(), System.currentTimeMillis() - start));
+        }
+
+        // Saves only count once they reached the database, so the database's own queue (such as write-behind) is flushed within the same deadline
+        awaitUntil(CompletableFuture.allOf(flush(), database.flush()), deadline);
+
+        // Checked last, a save that was still running after its batch may have finished while flushing
+        saves.forEach((island, save) -> {
+            if (!isDone(save)) {
+                missed.add(island.getData());
+            }
+        });
+
+        if (missed.isEmpty()) {
+            return;
+        }
+
+        logger.warning(missed.size() + " islands could not be saved in time, their latest changes may be lost. Listing them in "
+            + missedSaveReport.getFile().getName());
+
+        try {
+            missedSaveReport.append(missed);
+        } catch (IOException ex) {
+            logger.log(Level.SEVERE, "Failed to write the missed save report, the following islands were not saved: " + missed.stream()
+                .map(data -> data.getIslandId().toString())
+                .toList(), ex);
+        }
+    }
+
+    private static boolean isDone(CompletableFuture<?> future) {
+        return future.isDone() && !future.isCompletedExceptionally();
     }
 
     /**
-     * Forces all islands to unload
+     * Writes the warm-start manifest, listing the loaded islands from most to least recently accessed
      *
-     * @param islandId The island's id
+     * @param handles The loaded islands
+     */
+    private void writeWarmStartManifest(List<IslandHandle> handles) {
+        SkyblockIslandSettingsFile settings = plugin.getIslandSettingsFile();
+
+        if (settings.getWarmStartMaxIslands() <= 0) {
+            return;
+        }
+
+        Map<UUID, Long> lastAccess = new LinkedHashMap<>();
+
+        handles.stream()
+            .sorted(Comparator.comparingLong(IslandHandle::getLastAccess).reversed())
+            .limit(settings.getWarmStartMaxIslands())
+            .forEach(handle -> lastAccess.put(handle.getIslandId(), handle.getLastAccess()));
+
+        try {
+            warmStartManifest.write(lastAccess);
+        } catch (IOException ex) {
+            plugin.getLogger().log(Level.WARNING, "Failed to write the warm-start manifest, islands will be loaded on demand after the restart", ex);
+        }
+    }
+
+    /**
+     * Loads the hottest islands from the warm-start manifest in the background, straight into the warm pool
+     *
+     * @param maxIslands   The maximum amount of islands to prewarm
+     * @param maxAgeMillis Islands last accessed longer ago than this are skipped
+     */
+    private void prewarm(int maxIslands, long maxAgeMillis) {
+        Map<UUID, Long> lastAccess;
+
+        try {
+            lastAccess = warmStartManifest.consume();
+        } catch (IOException ex) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read the warm-start manifest, skipping prewarming", ex);
+            return;
+        }
+
+        long oldest = System.currentTimeMillis() - maxAgeMillis;
+
+        List<UUID> hottest = lastAccess.entrySet().stream()
+            .filter(entry -> entry.getValue() >= oldest)
+            .limit(maxIslands)
+            .map(Map.Entry::getKey)
+            .toList();
+
+        if (hottest.isEmpty()) {
+            return;
+        }
+
+        plugin.getLogger().info("Prewarming " + hottest.size() + " islands from the warm-start manifest");
+
+        // One bulk fetch instead of a round-trip per island
+        database.fetchIslandData(hottest).thenAccept(found -> {
+            for (IslandData data : found.values()) {
+                loadIsland(data, IslandLoadPriority.PREWARM).exceptionally(error -> {
+                    plugin.getLogger().log(Level.WARNING, "Failed to prewarm island " + data.getIslandId(), error);
+                    return null;
+                });
+            }
+        }).exceptionally(error -> {
+            plugin.getLogger().log(Level.WARNING, "Failed to fetch the islands to prewarm", error);
+            return null;
+        });
+    }
+
+    /**
+     * Saves an island's data and template, then unloads it. This is used on shutdown, where the scheduler can't be used.
+     *
+     * @param handle The island's handle
+     * @return A future, completed once both the data and the template are saved
+     */
+    private CompletableFuture<Void> saveAndUnload(IslandHandle handle) {
+        CompletableFuture<Void> dataSave = database.saveIslandData(handle.getIsland().getData());
+        CompletableFuture<Void> unload = beginUnload(handle) ? unload(handle, true, false) : handle.getUnloadFuture(); // Might already be unloading
+
+        return CompletableFuture.allOf(dataSave, unload);
+    }
+
+    /**
+     * Waits for a future, giving up once the deadline is reached. Failures are ignored, callers are expected to inspect the future themselves.
+     *
+     * @param future   The future
+     * @param deadline The deadline, in epoch milliseconds
+     */
+    private void awaitUntil(CompletableFuture<?> future, long deadline) {
+        long remaining = deadline - System.currentTimeMillis();
+
+        if (remaining <= 0) {
+            return;
+        }
+
+        try {
+            future.get(remaining, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ignored) {
+            // Handled by the caller
+        }
+    }
+
+    /**
+     * Warns about islands that were not saved before a previous shutdown, until the report is deleted
+     */
+    private void warnMissedSaves() {
+        Logger logger = plugin.getLogger();
+
+        try {
+            long missed = missedSaveReport.count();
+
+            if (missed > 0) {
+                logger.warning(missed + " islands were not saved before a previous shutdown, their latest changes may be lost. They are listed in "
+                    + missedSaveReport.getFile().getName() + ", delete it once they are checked");
+            }
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Failed to read the missed save report", ex);
+        }
+    }
+
+    /**
+     * Pastes an island from its template, once the load scheduler has a free slot
+     *
+     * @param handle   The island's handle
      * @param data     The island's data
      * @param area     The island's template
+     * @param priority The priority of the load
      * @return A future
      */
-    private CompletableFuture<Island> loadFromTemplate(UUID islandId, IslandData data, TemplatedArea area) {
-        return register(cosmosSetup.getSessionHolder().loadOrCreateSession(islandId, area).thenApply(session -> {
-            Island island = new Island(data, session);
-            loadedIslands.put(islandId, island);
+    private CompletableFuture<Island> loadFromTemplate(IslandHandle handle, IslandData data, TemplatedArea area, IslandLoadPriority priority) {
+        UUID islandId = handle.getIslandId();
+        long queuedAt = System.nanoTime();
 
-            Bukkit.getPluginManager().callEvent(new SkyblockIslandLoadEvent(island));
+        CompletableFuture<CosmosSession> sessionFuture = loadScheduler.submit(priority, () -> {
+            loadTracer.record(IslandLoadStage.SCHEDULER_WAIT, queuedAt);
+            long pacedAt = System.nanoTime();
 
-            return island;
-        }));
+            return pastePacer.submit(() -> {
+                loadTracer.record(IslandLoadStage.PACER_WAIT, pacedAt);
+                return loadTracer.trace(IslandLoadStage.SESSION_LOAD, () -> cosmosSetup.getSessionHolder().loadOrCreateSession(islandId, area));
+            });
+        });
+
+        return register(sessionFuture.thenApply(session -> bind(handle, data, session, priority)));
+    }
+
+    /**
+     * Binds island data to a pasted session, marking the island as loaded
+     *
+     * @param handle   The island's handle
+     * @param data     The island's data
+     * @param session  The pasted session
+     * @param priority The priority the island was loaded with
+     * @return The island
+     */
+    private Island bind(IslandHandle handle, IslandData data, CosmosSession session, IslandLoadPriority priority) {
+        Island island = new Island(data, session);
+        profileIslands.put(data.getOwnerId(), island);
+
+        if (priority == IslandLoadPriority.PREWARM) { // Nobody is waiting for this island, so it goes straight to the warm pool
+            handle.markLoaded(island, IslandState.UNLOAD_SCHEDULED);
+            warmPool.release(handle.getIslandId());
+        } else {
+            handle.markLoaded(island, IslandState.LOADED);
+        }
+
+        long eventStart = System.nanoTime();
+        Bukkit.getPluginManager().callEvent(new SkyblockIslandLoadEvent(island));
+        loadTracer.record(IslandLoadStage.LOAD_EVENT, eventStart);
+
+        return island;
+    }
+
+    /**
+     * Gets an island through its handle. Loaded islands are handed out directly, scheduled unloads are cancelled and the island is reused, islands that are
+     * being unloaded are loaded again once the unload finishes, and concurrent loads share the same pipeline.
+     *
+     * @param islandId The island's id
+     * @param loader   The loader, only called if this caller claims a brand-new handle
+     * @return The island
+     */
+    private CompletableFuture<Island> acquire(UUID islandId, Function<IslandHandle, CompletableFuture<Island>> loader) {
+        while (true) {
+            IslandHandle handle = islands.get(islandId);
+
+            if (handle == null) {
+                IslandHandle created = new IslandHandle(islandId);
+
+                if (islands.putIfAbsent(islandId, created) == null) {
+                    return startLoad(created, loader);
+                }
+
+                continue; // Someone else claimed it first
+            }
+
+            switch (handle.getState()) {
+                case LOADING -> { // Prewarmed islands land in the warm pool, so check the state again once the load finishes to claim the island properly
+                    coalescedLoads.increment();
+
+                    CompletableFuture<Island> load = handle.getLoadFuture();
+                    return register(load.thenCompose(island -> island == null ? load : acquire(islandId, loader)));
+                }
+                case LOADED -> {
+                    handle.touch();
+                    return CompletableFuture.completedFuture(handle.getIsland());
+                }
+                case UNLOAD_SCHEDULED -> {
+                    if (cancelUnload(handle)) {
+                        handle.touch();
+                        return CompletableFuture.completedFuture(handle.getIsland());
+                    }
+                    // The unload started first, try again
+                }
+                case UNLOADING -> {
+                    return register(handle.getUnloadFuture().thenCompose(irrelevant -> acquire(islandId, loader)));
+                }
+            }
+        }
     }
 
+    /**
+     * Runs the loader for a freshly claimed handle, dropping the handle if nothing was loaded
+     *
+     * @param handle The handle
+     * @param loader The loader
+     * @return The handle's load future
+     */
+    private CompletableFuture<Island> startLoad(IslandHandle handle, Function<IslandHandle, CompletableFuture<Island>> loader) {
+        CompletableFuture<Island> task;
+
+        try {
+            task = loader.apply(handle);
+        } catch (Exception ex) { // Some loaders throw directly, such as when a template is missing
+            task = CompletableFuture.failedFuture(ex);
+        }
+
+        task.whenComplete((island, error) -> {
+            if (handle.getState() == IslandState.LOADING) { // Nothing was pasted, remove the handle before completing so late callers start over
+                islands.remove(handle.getIslandId(), handle);
+            }
+
+            if (error != null) {
+                handle.getLoadFuture().completeExceptionally(error);
+            } else {
+                handle.getLoadFuture().complete(island);
+            }
+        });
+
+        return register(handle.getLoadFuture());
+    }
 
     /**
-     * Removes an island from the manager internally
+     * Cancels a scheduled unload, moving the island back to LOADED
+     *
+     * @param handle The island's handle
+     * @return TRUE if the unload was cancelled, FALSE if it already started
+     */
+    private boolean cancelUnload(IslandHandle handle) {
+        if (!handle.transition(IslandState.UNLOAD_SCHEDULED, IslandState.LOADED)) {
+            return false;
+        }
+
+        warmPool.reuse(handle.getIslandId());
+        return true;
+    }
+
+    /**
+     * Moves a loaded or idle island to UNLOADING
+     *
+     * @param handle The island's handle
+     * @return TRUE if this caller now owns the unload, FALSE if the island was in another state
+     */
+    private boolean beginUnload(IslandHandle handle) {
+        return handle.transition(IslandState.LOADED, IslandState.UNLOADING) || handle.transition(IslandState.UNLOAD_SCHEDULED, IslandState.UNLOADING);
+    }
+
+    /**
+     * Unloads an idle island that was evicted from the warm pool, unless it has been reused in the meantime
      *
      * @param islandId The island's id
      */
-    private void removeInternal(UUID islandId) {
-        Island island = loadedIslands.remove(islandId);
+    private void unloadIdleIsland(UUID islandId) {
+        IslandHandle handle = islands.get(islandId);
+
+        if (handle == null || !handle.transition(IslandState.UNLOAD_SCHEDULED, IslandState.UNLOADING)) {
+            return;
+        }
+
+        unload(handle, true, true);
+    }
+
+    /**
+     * Unloads an island whose handle is already in the UNLOADING state
+     *
+     * @param handle The island's handle
+     * @param save   Whether or not to save the island
+     * @param async  Set this to FALSE if you're disabling the plugin, you can't use the scheduler on shutdown
+     * @return The handle's unload future
+     */
+    private CompletableFuture<Void> unload(IslandHandle handle, boolean save, boolean async) {
+        UUID islandId = handle.getIslandId();
+        warmPool.remove(islandId);
+
+        if (save) { // The saved template replaces the cached one
+            templateCache.invalidate(islandId);
+        }
+
+        cosmosSetup.getSessionHolder().unloadSession(islandId, save, async).whenComplete((irrelevant, error) -> {
+            removeInternal(handle, error);
+
+            if (save && async && error == null && refreshTemplatesOnSave) {
+                refreshTemplate(islandId);
+            }
+        });
+
+        return register(handle.getUnloadFuture());
+    }
+
+    /**
+     * Fetches a freshly saved template in the background, so the next load of the island doesn't have to wait for the container
+     *
+     * @param islandId The island's id
+     */
+    private void refreshTemplate(UUID islandId) {
+        register(cosmosSetup.getIslandContainer().fetchTemplate(islandId.toString()).thenAccept(template -> {
+            if (template != null && !islands.containsKey(islandId)) { // If the island was loaded again meanwhile, its template is already stale
+                templateCache.put(islandId, template);
+            }
+        }));
+    }
+
+    /**
+     * Removes an island from the manager internally
+     *
+     * @param handle The island's handle
+     * @param error  The unload error, if any
+     */
+    private void removeInternal(IslandHandle handle, Throwable error) {
+        islands.remove(handle.getIslandId(), handle);
+        warmPool.remove(handle.getIslandId());
+
+        Island island = handle.getIsland();
 
         if (island != null) {
+            profileIslands.remove(island.getData().getOwnerId(), island); // Only remove if the index still points to this exact island
             Bukkit.getPluginManager().callEvent(new SkyblockIslandUnloadEvent(island));
         }
 
-        unloadingIslands.remove(islandId);
+        if (error != null) {
+            handle.getUnloadFuture().completeExceptionally(error);
+        } else {
+            handle.getUnloadFuture().complete(null);
+        }
     }
 
     /**
@@ -227,7 +785,9 @@ public class IslandManager {
     void registerRemoved(CosmosSession session) {
         UUID sessionId = session.getUuid();
 
-        if (!unloadingIslands.contains(sessionId) && loadedIslands.containsKey(sessionId)) {
+        IslandHandle handle = islands.get(sessionId);
+
+        if (handle != null && handle.getIsland() != null && handle.getState() != IslandState.UNLOADING) {
             throw new IllegalStateException("Session was removed without being unloaded! Possible API misuse!");
         }
     }
@@ -244,6 +804,107 @@ public class IslandManager {
         return task.whenComplete((result, error) -> pending.remove(task));
     }
 
+    /**
+     * Runs a load through an in-flight map, so that concurrent callers with the same key share the same future instead of starting their own pipeline.
+     *
+     * @param inFlight The in-flight map
+     * @param key      The key, usually a profile id
+     * @param loader   The loader, only called if there is no load in progress for the key
+     * @return The shared future
+     */
+    private CompletableFuture<Island> coalesce(Map<UUID, CompletableFuture<Island>> inFlight, UUID key, Supplier<CompletableFuture<Island>> loader) {
+        CompletableFuture<Island> future = new CompletableFuture<>();
+        CompletableFuture<Island> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            coalescedLoads.increment();
+            return existing;
+        }
+
+        CompletableFuture<Island> task;
+
+        try {
+            task = loader.get();
+        } catch (Exception ex) { // Some loaders throw directly, such as when a template is missing
+            task = CompletableFuture.failedFuture(ex);
+        }
+
+        task.whenComplete((island, error) -> {
+            inFlight.remove(key, future); // Remove before completing, so late callers see the loaded island instead of a finished future
+
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(island);
+            }
+        });
+
+        return register(future);
+    }
+
+    /**
+     * Gets the amount of load requests that joined an already running load, instead of starting their own
+     *
+     * @return The amount of coalesced requests
+     */
+    public long getCoalescedLoads() {
+        return coalescedLoads.sum();
+    }
+
+    /**
+     * Gets the load scheduler, which limits how many islands are pasted at the same time
+     *
+     * @return The load scheduler
+     */
+    public IslandLoadScheduler getLoadScheduler() {
+        return loadScheduler;
+    }
+
+    /**
+     * Gets the paste pacer, which limits how much main thread time is spent starting pastes every tick
+     *
+     * @return The paste pacer
+     */
+    public IslandPastePacer getPastePacer() {
+        return pastePacer;
+    }
+
+    /**
+     * Gets the template cache, which keeps a bounded amount of per-island templates in memory
+     *
+     * @return The template cache
+     */
+    public IslandTemplateCache getTemplateCache() {
+        return templateCache;
+    }
+
+    /**
+     * Gets the load tracer, which holds latency histograms for every stage of the island load pipeline
+     *
+     * @return The load tracer
+     */
+    public IslandLoadTracer getLoadTracer() {
+        return loadTracer;
+    }
+
+    /**
+     * Gets the creation pool, which keeps islands of the default template pasted ahead of time
+     *
+     * @return The creation pool
+     */
+    public IslandCreationPool getCreationPool() {
+        return creationPool;
+    }
+
+    /**
+     * Gets the warm pool, which keeps idle islands loaded while there is room for them
+     *
+     * @return The warm pool
+     */
+    public IslandWarmPool getWarmPool() {
+        return warmPool;
+    }
+
     public CompletableFuture<Void> flush() {
         return CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]));
     }
@@ -257,7 +918,19 @@ public class IslandManager {
      * @return The island
      */
     public Island getLoadedIsland(UUID islandId) {
-        return loadedIslands.get(islandId);
+        IslandHandle handle = islands.get(islandId);
+        return handle == null ? null : handle.getIsland();
+    }
+
+    /**
+     * Gets the lifecycle state of an island on this instance
+     *
+     * @param islandId The island's id
+     * @return The state, or null if the island is not on this instance
+     */
+    public IslandState getIslandState(UUID islandId) {
+        IslandHandle handle = islands.get(islandId);
+        return handle == null ? null : handle.getState();
     }
 
     /**
@@ -267,13 +940,7 @@ public class IslandManager {
      * @return The island
      */
     public Island getProfileIsland(UUID profileId) {
-        for (Island island : loadedIslands.values()) {
-            if (island.getData().getOwnerId().equals(profileId)) {
-                return island;
-            }
-        }
-
-        return null;
+        return profileIslands.get(profileId);
     }
 
     /**
@@ -287,7 +954,7 @@ public class IslandManager {
     }
 
     public Island getPlayerIsland(UUID playerId) {
-        UUID cachedProfileId = profileCache.getCachedProfileId(playerId);
+        UUID cachedProfileId = plugin.getProfileCache().getCachedProfileId(playerId); // The profile cache is set by the network, after we are created
 
         if (cachedProfileId == null) {
             return null;
@@ -0,0 +1,12 @@
+package me.illusion.skyblockcore.spigot.island.load;
+
+/**
+ * Represents the priority of an island load. Loads with a higher priority (declared first) are always started before loads with a lower priority.
+ */
+public enum IslandLoadPriority {
+
+    OWNER_ONLINE, // The owner is online and waiting for their island
+    VISITOR, // Someone else wants to visit the island
+    PREWARM // Background loading, nobody is waiting for this island yet
+
+}
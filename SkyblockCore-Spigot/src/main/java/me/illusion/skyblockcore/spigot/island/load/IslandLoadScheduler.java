@@ -0,0 +1,214 @@
+package me.illusion.skyblockcore.spigot.island.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The load scheduler sits in front of island pastes, and limits how many can run at the same time. Any loads past the limit are queued by priority, and then
+ * by submission order, so a restart wave doesn't paste hundreds of islands at once.
+ */
+public class IslandLoadScheduler {
+
+    private final PriorityBlockingQueue<QueuedLoad<?>> queue = new PriorityBlockingQueue<>();
+    private final Map<IslandLoadPriority, AtomicInteger> queuedPerPriority = new EnumMap<>(IslandLoadPriority.class);
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final LongAdder startedLoads = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private final int maxConcurrentLoads;
+
+    public IslandLoadScheduler(int maxConcurrentLoads) {
+        if (maxConcurrentLoads < 1) {
+            throw new IllegalArgumentException("Max concurrent loads must be at least 1!");
+        }
+
+        this.maxConcurrentLoads = maxConcurrentLoads;
+
+        for (IslandLoadPriority priority : IslandLoadPriority.values()) {
+            queuedPerPriority.put(priority, new AtomicInteger());
+        }
+    }
+
+    /**
+     * Submits a load to the scheduler. The task is started once there is a free slot, and no higher priority loads are waiting.
+     *
+     * @param priority The priority of the load
+     * @param task     The task, which is only called once the load starts
+     * @param <T>      The task's type
+     * @return A future which completes when the task's future completes
+     */
+    public <T> CompletableFuture<T> submit(IslandLoadPriority priority, Supplier<CompletableFuture<T>> task) {
+        QueuedLoad<T> load = new QueuedLoad<>(priority, sequence.getAndIncrement(), task);
+
+        queuedPerPriority.get(priority).incrementAndGet();
+        queue.add(load);
+
+        drain();
+        return load.result;
+    }
+
+    /**
+     * Starts as many queued loads as there are free slots
+     */
+    private void drain() {
+        while (true) {
+            int current = running.get();
+
+            if (current >= maxConcurrentLoads) {
+                return;
+            }
+
+            if (!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+
+            QueuedLoad<?> next = queue.poll();
+
+            if (next == null) {
+                running.decrementAndGet();
+
+                if (queue.isEmpty()) { // Something may have been queued while we held the slot, so check again before leaving
+                    return;
+                }
+
+                continue;
+            }
+
+            next.start();
+        }
+    }
+
+    // -------------- METRICS -------------- //
+
+    /**
+     * Gets the amount of loads waiting for a free slot
+     *
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the amount of loads of a certain priority waiting for a free slot
+     *
+     * @param priority The priority
+     * @return The queue depth
+     */
+    public int getQueueDepth(IslandLoadPriority priority) {
+        return queuedPerPriority.get(priority).get();
+    }
+
+    /**
+     * Gets the amount of loads currently running
+     *
+     * @return The amount of running loads
+     */
+    public int getRunningLoads() {
+        return running.get();
+    }
+
+    /**
+     * Gets the maximum amount of loads that can run at the same time
+     *
+     * @return The limit
+     */
+    public int getMaxConcurrentLoads() {
+        return maxConcurrentLoads;
+    }
+
+    /**
+     * Gets the average time a load spent in the queue before starting
+     *
+     * @return The average wait, in milliseconds
+     */
+    public double getAverageWaitMillis() {
+        long started = startedLoads.sum();
+
+        if (started == 0) {
+            return 0;
+        }
+
+        return totalWaitNanos.sum() / (double) started / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Gets the longest time a load spent in the queue before starting
+     *
+     * @return The maximum wait, in milliseconds
+     */
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    /**
+     * Represents a load waiting in the queue
+     *
+     * @param <T> The load's type
+     */
+    private class QueuedLoad<T> implements Comparable<QueuedLoad<?>> {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private final IslandLoadPriority priority;
+        private final long sequence;
+        private final long queuedAt = System.nanoTime();
+        private final Supplier<CompletableFuture<T>> task;
+
+        private QueuedLoad(IslandLoadPriority priority, long sequence, Supplier<CompletableFuture<T>> task) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        private void start() {
+            long waited = System.nanoTime() - queuedAt;
+
+            queuedPerPriority.get(priority).decrementAndGet();
+            startedLoads.increment();
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+            CompletableFuture<T> future;
+
+            try {
+                future = task.get();
+            } catch (Exception ex) {
+                future = CompletableFuture.failedFuture(ex);
+            }
+
+            future.whenComplete((value, error) -> {
+                running.decrementAndGet();
+                drain();
+
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+
+        @Override
+        public int compareTo(QueuedLoad<?> other) {
+            int comparison = priority.compareTo(other.priority);
+
+            if (comparison != 0) {
+                return comparison;
+            }
+
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
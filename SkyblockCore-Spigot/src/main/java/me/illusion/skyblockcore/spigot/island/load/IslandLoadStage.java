@@ -0,0 +1,17 @@
+package me.illusion.skyblockcore.spigot.island.load;
+
+/**
+ * Represents a stage of the island load pipeline, each stage is timed separately by the {@link IslandLoadTracer}.
+ */
+public enum IslandLoadStage {
+
+    PROFILE_LOOKUP, // Looking up the island owned by a profile
+    FETCH_DATA, // Fetching the island data from the database
+    TEMPLATE_CACHE, // Looking up the island template in the Cosmos cache
+    FETCH_TEMPLATE, // Fetching the island template from the Cosmos container, only on cache misses
+    SCHEDULER_WAIT, // Waiting for a free slot in the load scheduler
+    PACER_WAIT, // Waiting for main thread budget in the paste pacer
+    SESSION_LOAD, // Pasting the island through Cosmos
+    LOAD_EVENT // Dispatching the island load event
+
+}
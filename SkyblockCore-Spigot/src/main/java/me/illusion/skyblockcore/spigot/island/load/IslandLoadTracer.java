@@ -0,0 +1,89 @@
+package me.illusion.skyblockcore.spigot.island.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import me.illusion.skyblockcore.common.utilities.metrics.LatencyHistogram;
+
+/**
+ * Times every stage of the island load pipeline, so slow loads can be traced back to the database, the Cosmos container, the paste or the event listeners.
+ */
+public class IslandLoadTracer {
+
+    private final Map<IslandLoadStage, LatencyHistogram> histograms = new EnumMap<>(IslandLoadStage.class);
+
+    private final LongAdder templateCacheHits = new LongAdder();
+    private final LongAdder templateCacheMisses = new LongAdder();
+
+    public IslandLoadTracer() {
+        for (IslandLoadStage stage : IslandLoadStage.values()) {
+            histograms.put(stage, new LatencyHistogram()); // The map is never modified after this, so it's safe to read concurrently
+        }
+    }
+
+    /**
+     * Records a stage that started at a certain {@link System#nanoTime()} timestamp, and just finished
+     *
+     * @param stage      The stage
+     * @param startNanos The start timestamp
+     */
+    public void record(IslandLoadStage stage, long startNanos) {
+        histograms.get(stage).recordSince(startNanos);
+    }
+
+    /**
+     * Times an asynchronous stage, from the moment it is started until its future completes, whether it succeeds or not
+     *
+     * @param stage The stage
+     * @param task  The task
+     * @param <T>   The task's type
+     * @return The task's future
+     */
+    public <T> CompletableFuture<T> trace(IslandLoadStage stage, Supplier<CompletableFuture<T>> task) {
+        long start = System.nanoTime();
+        return task.get().whenComplete((result, error) -> record(stage, start));
+    }
+
+    /**
+     * Records the outcome of a template cache lookup
+     *
+     * @param hit Whether or not the template was cached
+     */
+    public void recordTemplateLookup(boolean hit) {
+        if (hit) {
+            templateCacheHits.increment();
+        } else {
+            templateCacheMisses.increment();
+        }
+    }
+
+    /**
+     * Gets the histogram of a stage
+     *
+     * @param stage The stage
+     * @return The histogram, in microseconds
+     */
+    public LatencyHistogram getHistogram(IslandLoadStage stage) {
+        return histograms.get(stage);
+    }
+
+    /**
+     * Gets the amount of loads that found their template in the Cosmos cache
+     *
+     * @return The amount of hits
+     */
+    public long getTemplateCacheHits() {
+        return templateCacheHits.sum();
+    }
+
+    /**
+     * Gets the amount of loads that had to fetch their template from the Cosmos container
+     *
+     * @return The amount of misses
+     */
+    public long getTemplateCacheMisses() {
+        return templateCacheMisses.sum();
+    }
+}
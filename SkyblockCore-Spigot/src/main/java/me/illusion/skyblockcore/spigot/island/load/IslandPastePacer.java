@@ -0,0 +1,129 @@
+package me.illusion.skyblockcore.spigot.island.load;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The paste pacer spreads paste work over several ticks. Work units are queued from any thread and run on the main thread, under a millisecond budget per tick
+ * that is shared by every concurrent load. A unit can't be interrupted, so when one runs over the budget, the overrun is paid back by skipping the next ticks.
+ * <p>
+ * {@link #tick()} is expected to be called once per tick, on the main thread.
+ */
+public class IslandPastePacer {
+
+    private final Queue<Runnable> units = new ConcurrentLinkedQueue<>();
+    private final long budgetNanos;
+
+    private final LongAdder deferredTicks = new LongAdder();
+
+    private long debtNanos; // Main thread only
+
+    /**
+     * Creates a new paste pacer
+     *
+     * @param budgetMillis The main thread time available per tick, 0 or less runs every unit as soon as it is submitted
+     */
+    public IslandPastePacer(long budgetMillis) {
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    /**
+     * Queues a work unit, which is started on the main thread once there is budget for it
+     *
+     * @param work The work, returning a future that completes once the work is fully applied
+     * @param <T>  The work's type
+     * @return A future, completed with the work's result
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> work) {
+        if (budgetNanos <= 0) {
+            return work.get();
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        units.add(() -> {
+            try {
+                work.get().whenComplete((value, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            } catch (Exception ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Runs queued units until this tick's budget is spent
+     */
+    public void tick() {
+        if (debtNanos >= budgetNanos) { // A previous unit ran over, let the server catch up
+            debtNanos -= budgetNanos;
+            countDeferred();
+            return;
+        }
+
+        long available = budgetNanos - debtNanos;
+        long start = System.nanoTime();
+        Runnable unit;
+
+        debtNanos = 0;
+
+        while ((unit = units.poll()) != null) {
+            unit.run();
+
+            long elapsed = System.nanoTime() - start;
+
+            if (elapsed >= available) {
+                debtNanos = elapsed - available;
+                break;
+            }
+        }
+
+        countDeferred();
+    }
+
+    private void countDeferred() {
+        if (!units.isEmpty()) {
+            deferredTicks.increment();
+        }
+    }
+
+    // -------------- METRICS -------------- //
+
+    /**
+     * Gets the amount of units waiting for budget
+     *
+     * @return The amount of queued units
+     */
+    public int getQueuedUnits() {
+        return units.size();
+    }
+
+    /**
+     * Gets the amount of ticks that ended with units still waiting for budget
+     *
+     * @return The amount of deferred ticks
+     */
+    public long getDeferredTicks() {
+        return deferredTicks.sum();
+    }
+
+    /**
+     * Gets the main thread time available per tick
+     *
+     * @return The budget, in milliseconds
+     */
+    public long getBudgetMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+    }
+}
@@ -0,0 +1,163 @@
+package me.illusion.skyblockcore.spigot.island.pool;
+
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import me.illusion.cosmos.session.CosmosSession;
+import me.illusion.cosmos.template.TemplatedArea;
+import me.illusion.skyblockcore.spigot.cosmos.SkyblockCosmosSetup;
+import me.illusion.skyblockcore.spigot.island.load.IslandLoadPriority;
+import me.illusion.skyblockcore.spigot.island.load.IslandLoadScheduler;
+import me.illusion.skyblockcore.spigot.island.load.IslandPastePacer;
+
+/**
+ * The creation pool keeps a few islands of a single template already pasted, so creating an island for a new player only has to bind the data to one of them.
+ * Every pooled session is pasted under a random id, which becomes the island id once it is taken. The pool is refilled in the background, at the lowest load
+ * priority.
+ */
+public class IslandCreationPool {
+
+    private final Queue<CosmosSession> readySessions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pastingSessions = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private final SkyblockCosmosSetup cosmosSetup;
+    private final IslandLoadScheduler loadScheduler;
+    private final IslandPastePacer pastePacer;
+    private final Logger logger;
+
+    private final String templateName;
+    private final int size;
+
+    private volatile boolean closed;
+
+    public IslandCreationPool(SkyblockCosmosSetup cosmosSetup, IslandLoadScheduler loadScheduler, IslandPastePacer pastePacer, Logger logger,
+        String templateName, int size) {
+        this.cosmosSetup = cosmosSetup;
+        this.loadScheduler = loadScheduler;
+        this.pastePacer = pastePacer;
+        this.logger = logger;
+        this.templateName = templateName;
+        this.size = size;
+    }
+
+    /**
+     * Takes a pre-pasted session for a template, and starts refilling the pool
+     *
+     * @param template The template name
+     * @return The session, or null if the pool doesn't hold this template or is empty
+     */
+    public CosmosSession take(String template) {
+        if (size <= 0 || !templateName.equals(template)) {
+            return null;
+        }
+
+        CosmosSession session = readySessions.poll();
+
+        if (session == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+
+        refill();
+        return session;
+    }
+
+    /**
+     * Pastes sessions in the background until the pool is full again
+     */
+    public void refill() {
+        TemplatedArea area = cosmosSetup.getTemplateCache().get(templateName);
+
+        if (area == null) {
+            return; // Improper setup, createIsland will report it
+        }
+
+        while (!closed) {
+            int pasting = pastingSessions.get();
+
+            if (readySessions.size() + pasting >= size) {
+                return;
+            }
+
+            if (!pastingSessions.compareAndSet(pasting, pasting + 1)) {
+                continue; // Someone else is refilling too
+            }
+
+            CompletableFuture<CosmosSession> paste = loadScheduler.submit(IslandLoadPriority.PREWARM,
+                () -> pastePacer.submit(() -> cosmosSetup.getSessionHolder().loadOrCreateSession(UUID.randomUUID(), area)));
+
+            paste.whenComplete((session, error) -> {
+                pastingSessions.decrementAndGet();
+
+                if (error != null) {
+                    logger.log(Level.WARNING, "Failed to paste a pooled " + templateName + " island", error);
+                    return;
+                }
+
+                if (closed) { // Pasted while shutting down, nobody will ever take it
+                    cosmosSetup.getSessionHolder().unloadSession(session.getUuid(), false, true);
+                    return;
+                }
+
+                readySessions.add(session);
+            });
+        }
+    }
+
+    /**
+     * Closes the pool, unloading every pre-pasted session without saving it, as none of them belong to an island yet
+     *
+     * @param async Set this to FALSE if you're disabling the plugin, you can't use the scheduler on shutdown
+     */
+    public void close(boolean async) {
+        closed = true;
+
+        CosmosSession session;
+
+        while ((session = readySessions.poll()) != null) {
+            cosmosSetup.getSessionHolder().unloadSession(session.getUuid(), false, async);
+        }
+    }
+
+    // -------------- METRICS -------------- //
+
+    /**
+     * Gets the amount of pre-pasted sessions ready to be taken
+     *
+     * @return The amount of ready sessions
+     */
+    public int getReadyCount() {
+        return readySessions.size();
+    }
+
+    /**
+     * Gets the amount of island creations that took a pre-pasted session
+     *
+     * @return The amount of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the amount of island creations that found the pool empty, and had to paste the template themselves
+     *
+     * @return The amount of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+}
@@ -0,0 +1,190 @@
+package me.illusion.skyblockcore.spigot.island.pool;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * The warm pool keeps islands that nobody is using pasted, so they can be reused instantly if someone comes back. The pool is bounded by an island count and
+ * by heap usage, and evicts the least recently released islands first. Islands that stay idle for too long are always evicted.
+ */
+public class IslandWarmPool {
+
+    private final Map<UUID, Long> idleIslands = new LinkedHashMap<>(); // Island ID -> release time, ordered from least to most recently released
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder expiredEvictions = new LongAdder();
+    private final LongAdder budgetEvictions = new LongAdder();
+
+    private final int maxIslands;
+    private final double maxHeapUsage;
+    private final long maxIdleMillis;
+    private final Consumer<UUID> evictor;
+
+    /**
+     * Creates a new warm pool
+     *
+     * @param maxIslands    The maximum amount of idle islands
+     * @param maxHeapUsage  The maximum heap usage, from 0 to 1, before idle islands are evicted
+     * @param maxIdleMillis The maximum time an island can stay idle
+     * @param evictor       Called for every evicted island, this is expected to unload it
+     */
+    public IslandWarmPool(int maxIslands, double maxHeapUsage, long maxIdleMillis, Consumer<UUID> evictor) {
+        this.maxIslands = maxIslands;
+        this.maxHeapUsage = maxHeapUsage;
+        this.maxIdleMillis = maxIdleMillis;
+        this.evictor = evictor;
+    }
+
+    /**
+     * Releases an island into the pool, marking it as idle. If the pool is over its island budget, the least recently released islands are evicted.
+     *
+     * @param islandId The island's id
+     */
+    public void release(UUID islandId) {
+        List<UUID> evicted = new ArrayList<>();
+
+        synchronized (idleIslands) {
+            idleIslands.remove(islandId); // Re-inserting moves the island to the most recently released position
+            idleIslands.put(islandId, System.currentTimeMillis());
+
+            while (idleIslands.size() > maxIslands) {
+                evicted.add(pollEldest());
+            }
+        }
+
+        budgetEvictions.add(evicted.size());
+        evicted.forEach(evictor);
+    }
+
+    /**
+     * Takes an island out of the pool, because someone is using it again
+     *
+     * @param islandId The island's id
+     * @return TRUE if the island was idle in the pool, FALSE otherwise
+     */
+    public boolean reuse(UUID islandId) {
+        boolean removed;
+
+        synchronized (idleIslands) {
+            removed = idleIslands.remove(islandId) != null;
+        }
+
+        if (removed) {
+            hits.increment();
+        }
+
+        return removed;
+    }
+
+    /**
+     * Removes an island from the pool without counting it as reused, this is called when an island is unloaded
+     *
+     * @param islandId The island's id
+     */
+    public void remove(UUID islandId) {
+        synchronized (idleIslands) {
+            idleIslands.remove(islandId);
+        }
+    }
+
+    /**
+     * Checks the pool's budget, evicting islands that have been idle for too long, and islands over the heap budget. This is expected to be called
+     * periodically, from the main thread, as the evictor unloads islands inline.
+     */
+    public void check() {
+        List<UUID> expired = new ArrayList<>();
+        List<UUID> overBudget = new ArrayList<>();
+
+        synchronized (idleIslands) {
+            long now = System.currentTimeMillis();
+            Iterator<Map.Entry<UUID, Long>> iterator = idleIslands.entrySet().iterator();
+
+            while (iterator.hasNext()) {
+                Map.Entry<UUID, Long> entry = iterator.next();
+
+                if (now - entry.getValue() < maxIdleMillis) {
+                    break; // Entries are ordered by release time, so everything after this one is newer
+                }
+
+                expired.add(entry.getKey());
+                iterator.remove();
+            }
+
+            if (getHeapUsage() > maxHeapUsage) {
+                // Memory isn't reclaimed until the islands actually unload and the GC runs, so only shed a slice of the pool per check
+                int amount = Math.max(1, idleIslands.size() / 10);
+
+                for (int index = 0; index < amount && !idleIslands.isEmpty(); index++) {
+                    overBudget.add(pollEldest());
+                }
+            }
+        }
+
+        expiredEvictions.add(expired.size());
+        budgetEvictions.add(overBudget.size());
+
+        expired.forEach(evictor);
+        overBudget.forEach(evictor);
+    }
+
+    private UUID pollEldest() {
+        Iterator<UUID> iterator = idleIslands.keySet().iterator();
+        UUID eldest = iterator.next();
+
+        iterator.remove();
+        return eldest;
+    }
+
+    private double getHeapUsage() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+
+        return used / (double) runtime.maxMemory();
+    }
+
+    // -------------- METRICS -------------- //
+
+    /**
+     * Gets the amount of idle islands in the pool
+     *
+     * @return The pool size
+     */
+    public int getSize() {
+        synchronized (idleIslands) {
+            return idleIslands.size();
+        }
+    }
+
+    /**
+     * Gets the amount of times an idle island was reused instead of being loaded again
+     *
+     * @return The amount of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the amount of islands evicted for being idle for too long
+     *
+     * @return The amount of expired evictions
+     */
+    public long getExpiredEvictions() {
+        return expiredEvictions.sum();
+    }
+
+    /**
+     * Gets the amount of islands evicted because the pool was over its island or heap budget
+     *
+     * @return The amount of budget evictions
+     */
+    public long getBudgetEvictions() {
+        return budgetEvictions.sum();
+    }
+}
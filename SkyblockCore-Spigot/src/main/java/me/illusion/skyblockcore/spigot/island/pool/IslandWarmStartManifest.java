@@ -0,0 +1,81 @@
+package me.illusion.skyblockcore.spigot.island.pool;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The warm-start manifest is a compact file listing the islands that were loaded when the server shut down, along with when they were last accessed. It is
+ * read on the next startup, so the hottest islands can be pasted before players reconnect.
+ */
+public class IslandWarmStartManifest {
+
+    private static final int MAGIC = 0x534B574D; // "SKWM"
+    private static final int VERSION = 1;
+
+    private final File file;
+
+    public IslandWarmStartManifest(File dataFolder) {
+        this.file = new File(dataFolder, "warm-start.manifest");
+    }
+
+    /**
+     * Writes the manifest, replacing any previous one
+     *
+     * @param lastAccess Island ID -> last access time in epoch milliseconds, ordered from hottest to coldest
+     * @throws IOException If the manifest could not be written
+     */
+    public void write(Map<UUID, Long> lastAccess) throws IOException {
+        file.getParentFile().mkdirs();
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(lastAccess.size());
+
+            for (Map.Entry<UUID, Long> entry : lastAccess.entrySet()) {
+                output.writeLong(entry.getKey().getMostSignificantBits());
+                output.writeLong(entry.getKey().getLeastSignificantBits());
+                output.writeLong(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads the manifest and deletes it, so a stale manifest is never used twice
+     *
+     * @return Island ID -> last access time in epoch milliseconds, in the order they were written. Empty if there is no manifest.
+     * @throws IOException If the manifest is corrupted
+     */
+    public Map<UUID, Long> consume() throws IOException {
+        Map<UUID, Long> lastAccess = new LinkedHashMap<>();
+
+        if (!file.exists()) {
+            return lastAccess;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Unsupported warm-start manifest: " + file.getName());
+            }
+
+            int count = input.readInt();
+
+            for (int index = 0; index < count; index++) {
+                lastAccess.put(new UUID(input.readLong(), input.readLong()), input.readLong());
+            }
+        } finally {
+            file.delete();
+        }
+
+        return lastAccess;
+    }
+}
@@ -0,0 +1,70 @@
+package me.illusion.skyblockcore.spigot.island.report;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.stream.Stream;
+import me.illusion.skyblockcore.common.data.IslandData;
+
+/**
+ * The missed save report is a plain text file listing the islands whose save did not finish before the server shut down. Their data is already in the
+ * database, but their latest world changes may be lost, so they are listed for an administrator to check. Nothing is replayed from it, the file is only
+ * appended to, and is kept until it is deleted by hand.
+ */
+public class IslandMissedSaveReport {
+
+    private final File file;
+
+    public IslandMissedSaveReport(File dataFolder) {
+        this.file = new File(dataFolder, "missed-islands.txt");
+    }
+
+    /**
+     * Appends islands to the report, one line per island
+     *
+     * @param islands The islands that were not saved
+     * @throws IOException If the report could not be written
+     */
+    public void append(Collection<IslandData> islands) throws IOException {
+        file.getParentFile().mkdirs();
+
+        String time = Instant.now().toString();
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (IslandData data : islands) {
+                writer.write(time + " island=" + data.getIslandId() + " owner=" + data.getOwnerId());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Counts the islands in the report
+     *
+     * @return The amount of reported islands, 0 if there is no report
+     * @throws IOException If the report could not be read
+     */
+    public long count() throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+
+        try (Stream<String> lines = Files.lines(file.toPath(), StandardCharsets.UTF_8)) {
+            return lines.filter(line -> !line.isBlank()).count();
+        }
+    }
+
+    /**
+     * Gets the report file
+     *
+     * @return The file
+     */
+    public File getFile() {
+        return file;
+    }
+}
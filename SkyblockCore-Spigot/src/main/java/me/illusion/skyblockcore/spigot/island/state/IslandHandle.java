@@ -0,0 +1,102 @@
+package me.illusion.skyblockcore.spigot.island.state;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import me.illusion.skyblockcore.spigot.island.Island;
+
+/**
+ * Holds the lifecycle of a single island on this instance. Every state change goes through {@link #transition(IslandState, IslandState)}, so concurrent loads
+ * and unloads always agree on who won. A handle lives from the moment an island starts loading until it is fully unloaded.
+ */
+public class IslandHandle {
+
+    private final UUID islandId;
+    private final AtomicReference<IslandState> state = new AtomicReference<>(IslandState.LOADING);
+
+    private final CompletableFuture<Island> loadFuture = new CompletableFuture<>();
+    private final CompletableFuture<Void> unloadFuture = new CompletableFuture<>();
+
+    private volatile Island island;
+    private volatile long lastAccess = System.currentTimeMillis();
+
+    public IslandHandle(UUID islandId) {
+        this.islandId = islandId;
+    }
+
+    /**
+     * Atomically moves the island from one state to another
+     *
+     * @param expected The state the island must currently be in
+     * @param next     The new state
+     * @return TRUE if the transition happened, FALSE if the island was in a different state
+     */
+    public boolean transition(IslandState expected, IslandState next) {
+        return state.compareAndSet(expected, next);
+    }
+
+    /**
+     * Marks the island as loaded, moving it out of LOADING
+     *
+     * @param island The loaded island
+     * @param next   The state after loading, either LOADED or UNLOAD_SCHEDULED if nobody is waiting for the island
+     */
+    public void markLoaded(Island island, IslandState next) {
+        this.island = island;
+
+        if (!transition(IslandState.LOADING, next)) {
+            throw new IllegalStateException("Island " + islandId + " finished loading while " + state.get());
+        }
+    }
+
+    /**
+     * Marks the island as accessed right now
+     */
+    public void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the last time the island was loaded, reused or released
+     *
+     * @return The last access time, in epoch milliseconds
+     */
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    public UUID getIslandId() {
+        return islandId;
+    }
+
+    public IslandState getState() {
+        return state.get();
+    }
+
+    /**
+     * Gets the island, this is null while the island is still loading
+     *
+     * @return The island
+     */
+    public Island getIsland() {
+        return island;
+    }
+
+    /**
+     * Gets the load future, completed once the island is loaded, or with null if it could not be found
+     *
+     * @return The load future
+     */
+    public CompletableFuture<Island> getLoadFuture() {
+        return loadFuture;
+    }
+
+    /**
+     * Gets the unload future, completed once the island is fully unloaded and removed from the manager
+     *
+     * @return The unload future
+     */
+    public CompletableFuture<Void> getUnloadFuture() {
+        return unloadFuture;
+    }
+}
@@ -0,0 +1,13 @@
+package me.illusion.skyblockcore.spigot.island.state;
+
+/**
+ * Represents the lifecycle state of an island on this instance. Islands only move between states through atomic transitions, see {@link IslandHandle}.
+ */
+public enum IslandState {
+
+    LOADING, // The island is being fetched and pasted, callers wait for the load instead of starting their own
+    LOADED, // The island is pasted and in use
+    UNLOAD_SCHEDULED, // Nobody is using the island, it will be unloaded later unless someone loads it again first
+    UNLOADING // The island is being saved and unloaded, loads wait for it to finish before pasting it again
+
+}
@@ -0,0 +1,95 @@
+package me.illusion.skyblockcore.spigot.island.template;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.UUID;
+import me.illusion.cosmos.template.TemplatedArea;
+
+/**
+ * A cache of per-island templates, bounded by the amount of templates. The least recently used templates are evicted once the configured limit is reached.
+ * <p>
+ * Cosmos doesn't expose the size of a template, so this is not a memory cap. Islands with big templates take more memory per entry, and the limit should be
+ * sized with that in mind.
+ */
+public class IslandTemplateCache {
+
+    private final Cache<UUID, TemplatedArea> templates;
+    private final int maxTemplates;
+
+    /**
+     * Creates a new template cache
+     *
+     * @param maxTemplates The maximum amount of cached templates, 0 disables the cache
+     */
+    public IslandTemplateCache(int maxTemplates) {
+        this.maxTemplates = Math.max(0, maxTemplates);
+
+        this.templates = CacheBuilder.newBuilder()
+            .maximumSize(this.maxTemplates)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Gets a cached template
+     *
+     * @param islandId The island's id
+     * @return The template, or null if it isn't cached
+     */
+    public TemplatedArea get(UUID islandId) {
+        return templates.getIfPresent(islandId);
+    }
+
+    /**
+     * Caches a template, possibly evicting the least recently used ones
+     *
+     * @param islandId The island's id
+     * @param area     The template
+     */
+    public void put(UUID islandId, TemplatedArea area) {
+        if (maxTemplates <= 0) {
+            return;
+        }
+
+        templates.put(islandId, area);
+    }
+
+    /**
+     * Removes a template, this is called when the island is saved and the cached template becomes stale
+     *
+     * @param islandId The island's id
+     */
+    public void invalidate(UUID islandId) {
+        templates.invalidate(islandId);
+    }
+
+    // -------------- METRICS -------------- //
+
+    /**
+     * Gets the cache statistics, holding the hit, miss and eviction counts
+     *
+     * @return The statistics
+     */
+    public CacheStats getStats() {
+        return templates.stats();
+    }
+
+    /**
+     * Gets the amount of cached templates
+     *
+     * @return The amount of templates
+     */
+    public long getSize() {
+        return templates.size();
+    }
+
+    /**
+     * Gets the maximum amount of cached templates
+     *
+     * @return The maximum amount of templates
+     */
+    public int getMaxTemplates() {
+        return maxTemplates;
+    }
+}
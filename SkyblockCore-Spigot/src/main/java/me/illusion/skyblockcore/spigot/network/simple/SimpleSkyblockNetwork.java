@@ -8,20 +8,22 @@ import me.illusion.skyblockcore.spigot.network.SkyblockNetworkStructure;
 import me.illusion.skyblockcore.spigot.network.simple.command.SimpleIslandCommand;
 import me.illusion.skyblockcore.spigot.network.simple.config.SimpleNetworkConfiguration;
 import me.illusion.skyblockcore.spigot.network.simple.listener.SimplePlayerJoinListener;
+import me.illusion.skyblockcore.spigot.network.simple.listener.SimplePlayerPreLoginListener;
 import me.illusion.skyblockcore.spigot.network.simple.listener.SimplePlayerQuitListener;
 import me.illusion.skyblockcore.spigot.network.simple.profile.SimpleProfileCache;
 import org.bukkit.Bukkit;
 import org.bukkit.event.Listener;
 
 /**
- * This is a "simple" skyblock network, which is targeted at a single-instance network setup. The simple network will load islands when the player joins,
- * without doing any instance checks, and unload when the player quits.
+ * This is a "simple" skyblock network, which is targeted at a single-instance network setup. The simple network will start loading islands as soon as the
+ * player logs in, without doing any instance checks, and unload when the player quits.
  */
 public class SimpleSkyblockNetwork implements SkyblockNetworkStructure {
 
     private final SkyblockSpigotPlugin plugin;
 
     private SimpleNetworkConfiguration configuration;
+    private SimpleProfileCache profileCache;
 
     public SimpleSkyblockNetwork(SkyblockSpigotPlugin plugin) {
         this.plugin = plugin;
@@ -49,13 +51,14 @@ public class SimpleSkyblockNetwork implements SkyblockNetworkStructure {
     // Main startup logic
 
     private void registerProfileCache() {
-        SimpleProfileCache profileCache = new SimpleProfileCache(plugin);
+        profileCache = new SimpleProfileCache(plugin);
 
         registerListener(profileCache);
         plugin.setProfileCache(profileCache);
     }
 
     private void registerListeners() {
+        registerListener(new SimplePlayerPreLoginListener(this));
         registerListener(new SimplePlayerJoinListener(this));
         registerListener(new SimplePlayerQuitListener(this));
     }
@@ -89,4 +92,8 @@ public class SimpleSkyblockNetwork implements SkyblockNetworkStructure {
     public SimpleNetworkConfiguration getConfiguration() {
         return configuration;
     }
+
+    public SimpleProfileCache getProfileCache() {
+        return profileCache;
+    }
 }
@@ -2,8 +2,6 @@ package me.illusion.skyblockcore.spigot.network.simple.config;
 
 import lombok.Getter;
 import me.illusion.cosmos.utilities.storage.YMLBase;
-import me.illusion.cosmos.utilities.time.Time;
-import me.illusion.skyblockcore.spigot.utilities.time.TimeParser;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -15,7 +13,6 @@ import org.bukkit.plugin.java.JavaPlugin;
 public class SimpleNetworkConfiguration extends YMLBase {
 
     private final String defaultIslandName;
-    private final Time unloadDelay;
 
     public SimpleNetworkConfiguration(JavaPlugin plugin) {
         super(plugin, "network/simple-network.yml");
@@ -23,10 +20,5 @@ public class SimpleNetworkConfiguration extends YMLBase {
         FileConfiguration configuration = getConfiguration();
 
         defaultIslandName = configuration.getString("island.default-name", "default");
-        unloadDelay = parseTime("island.unload-delay");
-    }
-
-    private Time parseTime(String path) {
-        return TimeParser.parse(getConfiguration().getString(path, "10 minutes"));
     }
 }
@@ -0,0 +1,92 @@
+package me.illusion.skyblockcore.spigot.network.simple.listener;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import me.illusion.skyblockcore.spigot.island.Island;
+import me.illusion.skyblockcore.spigot.network.simple.SimpleSkyblockNetwork;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+
+/**
+ * This is the simple player pre-login listener, which resolves the profile id and starts loading the island before the player has fully joined. The join
+ * listener then picks up the in-flight load through the island manager, so the paste may already be done by the time the player spawns.
+ */
+public class SimplePlayerPreLoginListener implements Listener {
+
+    private static final long ABANDON_DELAY_TICKS = 20 * 30; // If a player doesn't join within 30 seconds of pre-login, we give up on them
+
+    private final Map<UUID, CompletableFuture<Island>> prefetches = new ConcurrentHashMap<>();
+    private final SimpleSkyblockNetwork network;
+
+    public SimplePlayerPreLoginListener(SimpleSkyblockNetwork network) {
+        this.network = network;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        UUID playerId = event.getUniqueId();
+
+        CompletableFuture<Island> prefetch = network.getProfileCache().cacheProfileId(playerId)
+            .thenCompose(profileId -> network.getIslandManager().loadPlayerIsland(profileId, network.getConfiguration().getDefaultIslandName()));
+
+        prefetches.put(playerId, prefetch);
+
+        Bukkit.getScheduler().runTaskLaterAsynchronously(network.getPlugin(), () -> {
+            if (prefetches.remove(playerId, prefetch)) { // Still here, so the player never joined
+                abandon(playerId, prefetch);
+            }
+        }, ABANDON_DELAY_TICKS);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onLogin(PlayerLoginEvent event) {
+        if (event.getResult() == PlayerLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        UUID playerId = event.getPlayer().getUniqueId();
+        CompletableFuture<Island> prefetch = prefetches.remove(playerId);
+
+        if (prefetch != null) {
+            abandon(playerId, prefetch);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    private void onJoin(PlayerJoinEvent event) {
+        prefetches.remove(event.getPlayer().getUniqueId()); // The regular join flow takes over from here
+    }
+
+    /**
+     * Cleans up after a player that was prefetched, but never made it into the server.
+     *
+     * @param playerId The player's id
+     * @param prefetch The prefetch future
+     */
+    private void abandon(UUID playerId, CompletableFuture<Island> prefetch) {
+        if (Bukkit.getPlayer(playerId) != null) { // Joined after all, nothing to clean up
+            return;
+        }
+
+        network.getProfileCache().deleteFromCache(playerId);
+
+        prefetch.thenAccept(island -> {
+            if (island == null) {
+                return;
+            }
+
+            network.getIslandManager().releaseIsland(island.getIslandId());
+        });
+    }
+}
@@ -11,7 +11,7 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 
 /**
- * This is the simple player quit listener, which unloads the island when the player quits.
+ * This is the simple player quit listener, which releases the island into the warm pool when the player quits.
  */
 public class SimplePlayerQuitListener implements Listener {
 
@@ -38,8 +38,8 @@ public class SimplePlayerQuitListener implements Listener {
             return;
         }
 
-        // Unload the island after a while, this request will be cancelled if we attempt to load the island again, so no worries.
-        islandManager.requestUnloadIsland(island.getIslandId(), true, network.getConfiguration().getUnloadDelay());
+        // Hand the island to the warm pool, it stays pasted until the pool needs the room, or the owner comes back and reuses it.
+        islandManager.releaseIsland(island.getIslandId());
 
         player.teleport(Bukkit.getWorlds().get(0).getSpawnLocation()); // Just to be sure
     }
@@ -40,6 +40,22 @@ public final class TimeParser {
         return new Time(time, unit);
     }
 
+    /**
+     * Parses a time string into milliseconds, e.g. "5 minutes"
+     *
+     * @param input The time string
+     * @return The parsed time in milliseconds, throws an exception if the string is invalid
+     */
+    public static long parseMillis(String input) {
+        String[] split = input.split(" ");
+
+        if (split.length != 2) {
+            throw new IllegalArgumentException("Invalid time format");
+        }
+
+        return parseUnit(split[1]).toMillis(Long.parseLong(split[0]));
+    }
+
     /**
      * Attempts to parse a time unit from a string
      *